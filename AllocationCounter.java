@@ -0,0 +1,90 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes allocated by the current thread and the garbage
+ * collections of the JVM between start() and stop().
+ * The allocated bytes are only available on HotSpot based JVMs, on
+ * other JVMs they are reported as -1.
+ */
+class AllocationCounter {
+    private long startBytes;
+    private long startCollections;
+    private long startCollectionTime;
+    private long allocatedBytes;
+    private long collections;
+    private long collectionTime;
+
+    /**
+     * Starts counting from the current state of the JVM.
+     */
+    void start() {
+        startBytes = allocatedBytes();
+        startCollections = collections();
+        startCollectionTime = collectionTime();
+    }
+
+    /**
+     * Stops counting and keeps the differences since start().
+     */
+    void stop() {
+        long bytes = allocatedBytes();
+        allocatedBytes = bytes < 0 ? -1 : bytes - startBytes;
+        collections = collections() - startCollections;
+        collectionTime = collectionTime() - startCollectionTime;
+    }
+
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    long getCollections() {
+        return collections;
+    }
+
+    long getCollectionTime() {
+        return collectionTime;
+    }
+
+    /**
+     * Prints the counters, the allocated bytes also per generation.
+     *
+     * @param generations the number of generations that were counted
+     */
+    void print(int generations) {
+        System.out.println("Allocated: " + allocatedBytes + " bytes ("
+                + allocatedBytes / Math.max(1, generations) + " per generation)");
+        System.out.println("GC: " + collections + " collections, " + collectionTime + "ms");
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            try {
+                return ((com.sun.management.ThreadMXBean) bean)
+                        .getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+            catch (UnsupportedOperationException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean: ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean: ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+}
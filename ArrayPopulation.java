@@ -0,0 +1,758 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Population that keeps all individuals in flat arrays instead of a list of
+ * Individual objects. Every individual occupies a slot: the population lives
+ * in slots [0, populationSize) and the offspring in the slots after it, so
+ * the genotype of slot s is values[s * DIMENSION .. (s + 1) * DIMENSION).
+ */
+public class ArrayPopulation implements IPopulation {
+    private int populationSize;
+    private int offspringSize;
+    // the number of offspring slots that are used, fewer when the budget is nearly spent
+    private int offspringCount;
+    private int capacity;
+    // the genotypes of all slots
+    private double[] values;
+    // the mutation step sizes (n steps) of all slots
+    private double[] sigmas;
+    // the mutation step size (one step) of all slots
+    private double[] sigma;
+    // the rotation angles of the correlated mutation of all slots
+    private double[] alphas;
+    private int nAlpha;
+    // the fitness of all slots
+    private double[] fitness;
+    // the parent selection probability of the population slots
+    private double[] selectionProbability;
+    // the slots of the selected parents
+    private int[] matingPool;
+    private int matingPoolSize;
+    // samples parents from their selection probabilities
+    private SelectionSampler sampler;
+    // buffers the survivors are copied into before they become the population
+    private double[] nextValues;
+    private double[] nextSigmas;
+    private double[] nextSigma;
+    private double[] nextAlphas;
+    private double[] nextFitness;
+    // slot indices used for sorting
+    private int[] order;
+    // genotype handed to the evaluation
+    private double[] genotype;
+    // genotypes handed to the parallel evaluation, created when it is first used
+    private double[][] genotypes;
+    // the engine of the correlated mutation
+    private CorrelatedMutation correlated;
+    // mutates all offspring in one pass when Util.VECTOR_MUTATION is set, and its
+    // Gaussian samples and step sizes (or exponents), one per offspring value
+    private MutationKernel kernel;
+    private double[] gauss;
+    private double[] steps;
+    // the tree to find neighbours for fitness sharing, created when it is first used
+    private KdTree sharingTree;
+    private int[] neighbours;
+    private double[] neighbourDistances;
+    private Util util;
+
+    /**
+     * Constructor with only a Random object
+     *
+     * @param rnd_ Random class to be used
+     */
+    ArrayPopulation(Random rnd_, Util util, int populationSize) {
+        this.populationSize = populationSize;
+        this.util = util;
+
+        double offspringRatio = Util.OFFSPRING_RATIO;
+        offspringSize = (int) (populationSize * offspringRatio);
+        offspringCount = offspringSize;
+        capacity = populationSize + offspringSize;
+
+        values = new double[capacity * Util.DIMENSION];
+        sigmas = new double[capacity * Util.DIMENSION];
+        sigma = new double[capacity];
+        fitness = new double[capacity];
+        selectionProbability = new double[populationSize];
+        matingPool = new int[offspringSize];
+        sampler = new SelectionSampler(populationSize);
+        nextValues = new double[capacity * Util.DIMENSION];
+        nextSigmas = new double[capacity * Util.DIMENSION];
+        nextSigma = new double[capacity];
+        nextFitness = new double[capacity];
+        order = new int[capacity];
+        genotype = new double[Util.DIMENSION];
+        nAlpha = CorrelatedMutation.alphaCount();
+        alphas = new double[capacity * nAlpha];
+        nextAlphas = new double[capacity * nAlpha];
+        correlated = new CorrelatedMutation(util);
+        if (util.VECTOR_MUTATION) {
+            kernel = MutationKernel.load();
+            gauss = new double[offspringSize * Util.DIMENSION];
+            steps = new double[offspringSize * Util.DIMENSION];
+        }
+
+        for (int s = 0; s < populationSize; s++) {
+            int offset = s * Util.DIMENSION;
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                values[offset + i] = generateInRange(rnd_.nextDouble(), rnd_);
+            }
+            resetStrategy(s);
+        }
+    }
+
+    /* *******************
+     * EVALUATIONS
+     *********************/
+    @Override
+    public int evalInitialPopulation(ContestEvaluation eval) {
+        return evaluate(eval, 0, populationSize);
+    }
+
+    @Override
+    public int evalOffspring(ContestEvaluation eval) {
+        return evaluate(eval, populationSize, offspringCount);
+    }
+
+    @Override
+    public void setEvaluationBudget(int evaluations) {
+        offspringCount = Math.max(0, Math.min(offspringSize, evaluations));
+    }
+
+    /**
+     * Evaluates {@param count} consecutive slots starting at {@param from}.
+     *
+     * @return the number of evaluations used
+     */
+    private int evaluate(ContestEvaluation eval, int from, int count) {
+        if (util.EVALUATION_THREADS > 1 && eval instanceof ThreadSafeEvaluation) {
+            if (genotypes == null) {
+                genotypes = new double[capacity][Util.DIMENSION];
+            }
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(values, (from + i) * Util.DIMENSION, genotypes[i], 0, Util.DIMENSION);
+            }
+            return ParallelEvaluator.get(util.EVALUATION_THREADS)
+                    .evaluate(eval, genotypes, fitness, from, count);
+        }
+        if (eval instanceof BatchEvaluation) {
+            // the slots are already contiguous, so they are evaluated in place
+            int evaluations = ((BatchEvaluation) eval).evaluate(values, from, count, fitness);
+            if (evaluations < count) {
+                throw new NullPointerException("Evaluation limit reached");
+            }
+            return evaluations;
+        }
+        int evaluations = 0;
+        for (int s = from; s < from + count; s++) {
+            System.arraycopy(values, s * Util.DIMENSION, genotype, 0, Util.DIMENSION);
+            fitness[s] = (double) eval.evaluate(genotype);
+            evaluations++;
+        }
+        return evaluations;
+    }
+
+    /* *******************
+     * PARENT SELECTION
+     *********************/
+
+    @Override
+    public void selectParents(Random rnd_) {
+        if (util.parentSelection == Util.ParentSelection.TOURNAMENT) {
+            tournamentSelection(rnd_);
+        }
+        else {
+            switch (util.parentSelection) {
+                case UNIFORM:
+                    uniformParentSelection();
+                    break;
+                case FPS:
+                    if (util.FITNESS_SHARING) {
+                        fitnessSharing();
+                    }
+                    fitnessProportionalSelection();
+                    break;
+                case LINEAR_RANK:
+                    rankingSelectionLinear();
+                    break;
+                case EXPONENTIAL_RANK:
+                    rankingSelectionExponential();
+                    break;
+            }
+            sampleParents(rnd_);
+        }
+    }
+
+    private void tournamentSelection(Random rnd_) {
+        Tournament.select(fitness, populationSize, Util.TOURNAMENT_K, matingPool, offspringSize, rnd_);
+        matingPoolSize = offspringSize;
+    }
+
+    private void uniformParentSelection() {
+        for (int s = 0; s < populationSize; s++) {
+            selectionProbability[s] = 1.0 / populationSize;
+        }
+    }
+
+    private void fitnessProportionalSelection() {
+        double fitnessSum = 0.0;
+        for (int s = 0; s < populationSize; s++) {
+            fitnessSum += fitness[s];
+        }
+        for (int s = 0; s < populationSize; s++) {
+            selectionProbability[s] = fitness[s] / fitnessSum;
+        }
+    }
+
+    /**
+     * Linear ranking
+     */
+    private void rankingSelectionLinear() {
+        sortPopulationReverse();
+        double s = Util.PARENT_LINEAR_S;
+        int maxRank = populationSize - 1;
+        for (int i = 0; i < populationSize; i++) {
+            int rank = maxRank - i;
+            selectionProbability[order[i]] = ((2 - s) / populationSize) + (2 * rank * (s - 1) /
+                    (populationSize * (populationSize - 1)));
+        }
+    }
+
+    /**
+     * Exponential ranking
+     */
+    private void rankingSelectionExponential() {
+        sortPopulationReverse();
+        double normalisation = 0.0;
+        int maxRank = populationSize - 1;
+        for (int i = 0; i < populationSize; i++) {
+            double prob = 1 - Math.exp(-1 * (maxRank - i));
+            selectionProbability[order[i]] = prob;
+            normalisation += prob;
+        }
+        // normalise the selection probabilities
+        for (int s = 0; s < populationSize; s++) {
+            selectionProbability[s] /= normalisation;
+        }
+    }
+
+    /**
+     * Samples the mating pool from the selection probabilities, with the
+     * sampling method set in util.
+     */
+    private void sampleParents(Random rnd_) {
+        sampler.setProbabilities(selectionProbability, populationSize);
+        switch (util.sampling) {
+            case SUS:
+                sampler.sampleSUS(rnd_, matingPool, offspringSize);
+                break;
+            case ROULETTE:
+                for (int i = 0; i < offspringSize; i++) {
+                    matingPool[i] = sampler.sampleRoulette(rnd_);
+                }
+                break;
+            case ALIAS:
+                for (int i = 0; i < offspringSize; i++) {
+                    matingPool[i] = sampler.sampleAlias(rnd_);
+                }
+                break;
+        }
+        matingPoolSize = offspringSize;
+    }
+
+    /* ****************************
+     * RECOMBINATION
+     ******************************/
+
+    @Override
+    public void recombine(Random rnd_) {
+        // when the budget cuts the generation short, the fittest parents are paired first
+        boolean budgeted = offspringCount < offspringSize;
+        int end = populationSize + offspringCount;
+        for (int child = populationSize; child < end; child += Util.N_PARENTS) {
+            int first = budgeted ? takeFittestParent() : takeParent(rnd_);
+            int second = budgeted ? takeFittestParent() : takeParent(rnd_);
+            int sibling = child + 1;
+
+            switch (util.recombination) {
+                case SIMPLE_ARITHMETIC:
+                    singleArithmeticRecombination(rnd_, first, second, child, sibling);
+                    break;
+                case SINGLE_ARITHMETIC:
+                    simpleArithmeticRecombination(rnd_, first, second, child, sibling);
+                    break;
+                case WHOLE_ARITHMETIC:
+                    wholeArithmeticRecombination(rnd_, first, second, child, sibling);
+                    break;
+                case BLEND:
+                    blendRecombination(rnd_, first, second, child, sibling);
+                    break;
+            }
+            resetStrategy(child);
+            resetStrategy(sibling);
+        }
+    }
+
+    /**
+     * Removes a random parent from the mating pool.
+     *
+     * @return the slot of the parent
+     */
+    private int takeParent(Random rnd_) {
+        int index = rnd_.nextInt(matingPoolSize);
+        int parent = matingPool[index];
+        matingPool[index] = matingPool[--matingPoolSize];
+        return parent;
+    }
+
+    /**
+     * Removes the fittest parent from the mating pool.
+     *
+     * @return the slot of the parent
+     */
+    private int takeFittestParent() {
+        int best = 0;
+        for (int i = 1; i < matingPoolSize; i++) {
+            if (fitness[matingPool[i]] > fitness[matingPool[best]]) {
+                best = i;
+            }
+        }
+        int parent = matingPool[best];
+        matingPool[best] = matingPool[--matingPoolSize];
+        return parent;
+    }
+
+    /**
+     * Simple Arithmetic Recombination
+     */
+    private void simpleArithmeticRecombination(Random rnd_, int p0, int p1, int c0, int c1) {
+        int k = rnd_.nextInt(Util.DIMENSION);
+        int a = p0 * Util.DIMENSION;
+        int b = p1 * Util.DIMENSION;
+        int x = c0 * Util.DIMENSION;
+        int y = c1 * Util.DIMENSION;
+        for (int i = k; i < Util.DIMENSION; i++) {
+            double mean = 0.5 * (values[a + i] + values[b + i]);
+            values[x + i] = mean;
+            values[y + i] = mean;
+        }
+        for (int i = 0; i < k; i++) {
+            values[x + i] = values[a + i];
+            values[y + i] = values[b + i];
+        }
+    }
+
+    /**
+     * Single Arithmetic Recombination
+     */
+    private void singleArithmeticRecombination(Random rnd_, int p0, int p1, int c0, int c1) {
+        int k = rnd_.nextInt(Util.DIMENSION);
+        int a = p0 * Util.DIMENSION;
+        int b = p1 * Util.DIMENSION;
+        int x = c0 * Util.DIMENSION;
+        int y = c1 * Util.DIMENSION;
+        double mean = 0.5 * (values[a + k] + values[b + k]);
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            values[x + i] = values[a + i];
+            values[y + i] = values[b + i];
+        }
+        values[x + k] = mean;
+        values[y + k] = mean;
+    }
+
+    /**
+     * Whole Arithmetic Recombination
+     */
+    private void wholeArithmeticRecombination(Random rnd_, int p0, int p1, int c0, int c1) {
+        double alpha = rnd_.nextDouble();
+        int a = p0 * Util.DIMENSION;
+        int b = p1 * Util.DIMENSION;
+        int x = c0 * Util.DIMENSION;
+        int y = c1 * Util.DIMENSION;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            double va = values[a + i];
+            double vb = values[b + i];
+            values[x + i] = alpha * va + (1 - alpha) * vb;
+            values[y + i] = alpha * vb + (1 - alpha) * va;
+        }
+    }
+
+    /**
+     * Blend recombination page 67
+     */
+    private void blendRecombination(Random rnd_, int p0, int p1, int c0, int c1) {
+        double alpha = 0.5;
+        int a = p0 * Util.DIMENSION;
+        int b = p1 * Util.DIMENSION;
+        int x = c0 * Util.DIMENSION;
+        int y = c1 * Util.DIMENSION;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            double u = rnd_.nextDouble();
+            double gamma = (1 - 2 * alpha) * u - alpha;
+            double va = values[a + i];
+            double vb = values[b + i];
+            values[x + i] = (1 - gamma) * va + gamma * vb;
+            values[y + i] = (1 - gamma) * vb + gamma * va;
+        }
+    }
+
+    /* ****************************
+     * MUTATION
+     ******************************/
+
+    @Override
+    public void mutate(Random rnd_, double epsilon) {
+        if (kernel != null && (util.mutation == Util.Mutation.NON_UNIFORM
+                || util.mutation == Util.Mutation.UNCORRELATED_N_STEP)) {
+            mutateBlock(rnd_, epsilon);
+            return;
+        }
+        for (int s = populationSize; s < populationSize + offspringCount; s++) {
+            switch (util.mutation) {
+                case UNIFORM:
+                    uniformMutation(rnd_, s);
+                    break;
+                case NON_UNIFORM:
+                    nonUniformMutation(rnd_, s);
+                    break;
+                case UNCORRELATED_ONE_STEP:
+                    uncorrelatedMutationOneStep(rnd_, epsilon, s);
+                    break;
+                case UNCORRELATED_N_STEP:
+                    uncorrelatedMutationNStep(rnd_, epsilon, s);
+                    break;
+                case CORRELATED:
+                    correlated.mutate(rnd_, epsilon, values, sigmas, s * Util.DIMENSION, alphas, s * nAlpha);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Non-uniform or uncorrelated n-step mutation of all offspring in one
+     * pass of the kernel. The Gaussian samples are drawn first, in the order
+     * the mutation of one slot at a time draws them, so both give the same
+     * offspring.
+     */
+    private void mutateBlock(Random rnd_, double epsilon) {
+        boolean nStep = util.mutation == Util.Mutation.UNCORRELATED_N_STEP;
+        for (int c = 0; c < offspringCount; c++) {
+            int s = populationSize + c;
+            // the step size of the slot, or the part of the exponent its values share
+            double shared = nStep ? util.tauPrime * rnd_.nextGaussian() : sigma[s];
+            int from = c * Util.DIMENSION;
+            int to = from + Util.DIMENSION;
+            FastRandom.nextGaussians(rnd_, gauss, from, to);
+            for (int i = from; i < to; i++) {
+                steps[i] = nStep ? shared + util.tauSimple * gauss[i] : shared;
+            }
+        }
+        int offset = populationSize * Util.DIMENSION;
+        int length = offspringCount * Util.DIMENSION;
+        if (nStep) {
+            kernel.uncorrelatedNStep(values, sigmas, offset, gauss, steps, length, epsilon);
+        }
+        else {
+            kernel.nonUniform(values, offset, gauss, steps, length);
+        }
+    }
+
+    private void uniformMutation(Random rnd_, int s) {
+        int offset = s * Util.DIMENSION;
+        for (int i = offset; i < offset + Util.DIMENSION; i++) {
+            if (rnd_.nextDouble() < Util.MUTATION_RATE) {
+                values[i] = generateInRange(rnd_.nextGaussian(), rnd_);
+            }
+        }
+    }
+
+    private void nonUniformMutation(Random rnd_, int s) {
+        int offset = s * Util.DIMENSION;
+        for (int i = offset; i < offset + Util.DIMENSION; i++) {
+            values[i] = keepInRange(values[i] + sigma[s] * rnd_.nextGaussian());
+        }
+    }
+
+    private void uncorrelatedMutationOneStep(Random rnd_, double epsilon, int s) {
+        sigma[s] = Math.max(epsilon, sigma[s] * Math.exp(util.tauSimple * rnd_.nextGaussian()));
+        int offset = s * Util.DIMENSION;
+        for (int i = offset; i < offset + Util.DIMENSION; i++) {
+            values[i] = keepInRange(values[i] + sigma[s] * rnd_.nextGaussian());
+        }
+    }
+
+    private void uncorrelatedMutationNStep(Random rnd_, double epsilon, int s) {
+        double tauSimple = util.tauSimple;
+        double tauGauss = util.tauPrime * rnd_.nextGaussian();
+        int offset = s * Util.DIMENSION;
+        for (int i = offset; i < offset + Util.DIMENSION; i++) {
+            double gaussSample = rnd_.nextGaussian();
+            sigmas[i] = Math.max(epsilon, sigmas[i] * Math.exp(tauGauss + tauSimple * gaussSample));
+            values[i] = keepInRange(values[i] + sigmas[i] * gaussSample);
+        }
+    }
+
+    /* ****************************
+     * SURVIVOR SELECTION
+     ******************************/
+
+    @Override
+    public void selectSurvivors() {
+        switch (util.survivorSelection) {
+            case GENERATIONAL:
+                generational();
+                break;
+            case MU_PLUS_LAMBDA:
+                muPlusLambda();
+                break;
+            case TOURNAMENT:
+                break;
+        }
+    }
+
+    /**
+     * Replaces all parents with the children. When the budget left fewer
+     * children than parents, the best parents take the places of the missing children.
+     */
+    private void generational() {
+        int count = Math.min(populationSize, offspringCount);
+        int kept = populationSize - count;
+        if (kept > 0) {
+            for (int s = 0; s < populationSize; s++) {
+                order[s] = s;
+            }
+            PartialSort.selectBest(fitness, order, populationSize, kept);
+            for (int i = 0; i < count; i++) {
+                order[kept + i] = populationSize + i;
+            }
+            keepSlots();
+            return;
+        }
+        System.arraycopy(values, populationSize * Util.DIMENSION, values, 0, count * Util.DIMENSION);
+        System.arraycopy(sigmas, populationSize * Util.DIMENSION, sigmas, 0, count * Util.DIMENSION);
+        System.arraycopy(sigma, populationSize, sigma, 0, count);
+        System.arraycopy(alphas, populationSize * nAlpha, alphas, 0, count * nAlpha);
+        System.arraycopy(fitness, populationSize, fitness, 0, count);
+    }
+
+    /**
+     * Merges parents with children and keeps the best @{populationSize}.
+     * Only the survivors are found (quickselect), they are not sorted.
+     */
+    private void muPlusLambda() {
+        int used = populationSize + offspringCount;
+        for (int s = 0; s < used; s++) {
+            order[s] = s;
+        }
+        PartialSort.selectBest(fitness, order, used, populationSize);
+        keepSlots();
+    }
+
+    /**
+     * Makes the slots in the first populationSize entries of order the population.
+     */
+    private void keepSlots() {
+        for (int i = 0; i < populationSize; i++) {
+            int s = order[i];
+            System.arraycopy(values, s * Util.DIMENSION, nextValues, i * Util.DIMENSION, Util.DIMENSION);
+            System.arraycopy(sigmas, s * Util.DIMENSION, nextSigmas, i * Util.DIMENSION, Util.DIMENSION);
+            System.arraycopy(alphas, s * nAlpha, nextAlphas, i * nAlpha, nAlpha);
+            nextSigma[i] = sigma[s];
+            nextFitness[i] = fitness[s];
+        }
+        double[] swap = values;
+        values = nextValues;
+        nextValues = swap;
+        swap = sigmas;
+        sigmas = nextSigmas;
+        nextSigmas = swap;
+        swap = sigma;
+        sigma = nextSigma;
+        nextSigma = swap;
+        swap = alphas;
+        alphas = nextAlphas;
+        nextAlphas = swap;
+        swap = fitness;
+        fitness = nextFitness;
+        nextFitness = swap;
+    }
+
+    /* ****************************
+     * METHODS FOR MULTI-MODALITY
+     ******************************/
+
+    /**
+     * Applies fitness sharing to the entire population.
+     * Only the slots within SIGMA_SHARE contribute to the sum,
+     * so they are looked up in a k-d tree instead of comparing all pairs.
+     */
+    private void fitnessSharing() {
+        if (sharingTree == null) {
+            sharingTree = new KdTree();
+            neighbours = new int[populationSize];
+            neighbourDistances = new double[populationSize];
+        }
+        // the population slots come first, so the tree can be built on the values directly
+        sharingTree.build(values, populationSize, Util.DIMENSION);
+
+        double radiusSquared = Util.SIGMA_SHARE * Util.SIGMA_SHARE;
+        for (int s = 0; s < populationSize; s++) {
+            int count = sharingTree.neighbours(values, s * Util.DIMENSION, radiusSquared,
+                    neighbours, neighbourDistances);
+            double sum = 0.0;
+            for (int t = 0; t < count; t++) {
+                sum += sh(Math.sqrt(neighbourDistances[t]));
+            }
+            fitness[s] /= sum;
+        }
+    }
+
+    /**
+     * Gets the value of the sharing function
+     *
+     * @param distance between two individuals
+     * @return the value of the function
+     */
+    private double sh(double distance) {
+        double sigmaShare = Util.SIGMA_SHARE;
+        if (distance <= sigmaShare) {
+            return 1 - distance / sigmaShare;
+        }
+        else {
+            return 0.0;
+        }
+    }
+
+    /* ****************************
+     * AUXILIARY FUNCTIONS
+     ******************************/
+
+    /**
+     * Fills the first populationSize entries of order with the population
+     * slots, best first.
+     */
+    private void sortPopulationReverse() {
+        for (int s = 0; s < populationSize; s++) {
+            order[s] = s;
+        }
+        PartialSort.sortDescending(fitness, order, 0, populationSize - 1);
+    }
+
+    /**
+     * Sets the step sizes and angles of a slot back to their initial values.
+     */
+    private void resetStrategy(int s) {
+        int offset = s * Util.DIMENSION;
+        for (int i = offset; i < offset + Util.DIMENSION; i++) {
+            sigmas[i] = Util.MUTATION_STEP_SIZE;
+        }
+        sigma[s] = Util.MUTATION_STEP_SIZE;
+        Arrays.fill(alphas, s * nAlpha, (s + 1) * nAlpha, 0.0);
+        fitness[s] = 0.0;
+    }
+
+    /**
+     * Generates values in range [-5,5], in the same way as Individual
+     */
+    private double generateInRange(double val, Random rnd_) {
+        val = val * 5.0;
+        if (rnd_.nextBoolean()) {
+            val *= -1;
+        }
+        return val * (Util.MAX_VALUE - Util.MIN_VALUE) + Util.MIN_VALUE;
+    }
+
+    /**
+     * Makes sure that {@param val} is in the range [-5,5]
+     */
+    private double keepInRange(double val) {
+        return Math.min(Util.MAX_VALUE, Math.max(Util.MIN_VALUE, val));
+    }
+
+    public void printFitness()
+    {
+        StringBuilder s = new StringBuilder();
+        s.append("[");
+        for (int i = 0; i < populationSize; i++) {
+            s.append(fitness[i]);
+            s.append(", ");
+            if ((i + 1) % 8 == 0) {
+                s.append("\n");
+            }
+        }
+        s.append("]\n");
+        System.out.print(s.toString());
+    }
+
+    /**
+     * Computes the sum of the allele-values of all of the individuals in the population.
+     */
+    public double[] getSumValues()
+    {
+        double[] sumValues = new double[Util.DIMENSION];
+        for (int s = 0; s < populationSize; s++) {
+            int offset = s * Util.DIMENSION;
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                sumValues[i] += values[offset + i];
+            }
+        }
+        return sumValues;
+    }
+
+    /**
+     * Computes population diversity measure due to Morrison & de Jong (2001).
+     */
+    public double[] getDiversity(double[] meanValues)
+    {
+        double[] diversity = new double[Util.DIMENSION];
+        for (int s = 0; s < populationSize; s++) {
+            int offset = s * Util.DIMENSION;
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                double d = values[offset + i] - meanValues[i];
+                diversity[i] += d * d;
+            }
+        }
+        return diversity;
+    }
+
+    @Override
+    public double getBestFitness() {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < populationSize; s++) {
+            best = Math.max(best, fitness[s]);
+        }
+        return best;
+    }
+
+    @Override
+    public void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations) {
+        double best = Double.NEGATIVE_INFINITY;
+        double worst = Double.POSITIVE_INFINITY;
+        double sum = 0.0;
+        double sumSigma = 0.0;
+        for (int s = 0; s < populationSize; s++) {
+            best = Math.max(best, fitness[s]);
+            worst = Math.min(worst, fitness[s]);
+            sum += fitness[s];
+            if (util.mutation == Util.Mutation.UNCORRELATED_ONE_STEP) {
+                sumSigma += sigma[s];
+            }
+            else {
+                int offset = s * Util.DIMENSION;
+                for (int i = 0; i < Util.DIMENSION; i++) {
+                    sumSigma += sigmas[offset + i] / Util.DIMENSION;
+                }
+            }
+        }
+        telemetry.append(generation, island, evaluations, best, sum / populationSize, worst,
+                Util.meanDiversity(this, populationSize), sumSigma / populationSize);
+    }
+
+    @Override
+    public void makeExchange(Random rnd_) {
+        throw new UnsupportedOperationException();
+    }
+}
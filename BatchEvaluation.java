@@ -0,0 +1,25 @@
+import org.vu.contest.ContestEvaluation;
+
+/**
+ * A ContestEvaluation that can evaluate many genotypes in one call. The
+ * genotypes are stored one after the other in a flat array, so a batch is
+ * passed without an array per genotype and without boxing the fitness
+ * values, and the budget is only accounted once per batch.
+ * The populations use it when the evaluation they are given implements it;
+ * the wrappers (ConcurrentEvaluation, CachingEvaluation) do not pass
+ * batches on.
+ */
+interface BatchEvaluation extends ContestEvaluation {
+    /**
+     * Evaluates the genotypes offset .. offset + count, which start at
+     * genotypes[i * Util.DIMENSION], and stores the fitness of genotype i
+     * in fitness[i].
+     *
+     * @param genotypes the genotypes, Util.DIMENSION values each
+     * @param offset the index of the first genotype
+     * @param count the number of genotypes
+     * @param fitness the array the fitness values are written to
+     * @return the number of genotypes evaluated, less than count when the evaluation limit is reached
+     */
+    int evaluate(double[] genotypes, int offset, int count, double[] fitness);
+}
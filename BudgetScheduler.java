@@ -0,0 +1,75 @@
+/**
+ * Knows exactly how many evaluations are left, so the evolution loop stops
+ * at the evaluation limit instead of running into it. Before every
+ * generation the population is told how many evaluations its offspring may
+ * use: the last generation only creates the children that can still be
+ * evaluated, from its most promising parents, and a restart is only started
+ * when its initial population can be evaluated.
+ *
+ * Genotypes answered by the fitness cache do not use up the budget, so with
+ * a cache the evaluations that reached the real evaluation are counted.
+ */
+class BudgetScheduler {
+    private final int limit;
+    private final CachingEvaluation cache;
+    private int used;
+
+    /**
+     * @param limit the evaluation limit
+     * @param cache the fitness cache in front of the evaluation, or null
+     */
+    BudgetScheduler(int limit, CachingEvaluation cache) {
+        this.limit = limit;
+        this.cache = cache;
+    }
+
+    /**
+     * Records evaluations that were used.
+     *
+     * @param evaluations the number of genotypes that were evaluated
+     */
+    void consume(int evaluations) {
+        used += evaluations;
+    }
+
+    /**
+     * @return the number of evaluations that are left
+     */
+    int remaining() {
+        if (cache != null) {
+            return Math.max(0, limit - (int) cache.getMisses());
+        }
+        return Math.max(0, limit - used);
+    }
+
+    /**
+     * @return the number of evaluations used so far
+     */
+    int used() {
+        return limit - remaining();
+    }
+
+    /**
+     * @return whether no evaluation is left
+     */
+    boolean exhausted() {
+        return remaining() == 0;
+    }
+
+    /**
+     * Hands the evaluations that are left to the next generation of the population.
+     *
+     * @param population the population that evolves next
+     */
+    void schedule(IPopulation population) {
+        population.setEvaluationBudget(remaining());
+    }
+
+    /**
+     * @param evaluations the evaluations a new population needs before its first generation
+     * @return whether they are left
+     */
+    boolean fits(int evaluations) {
+        return evaluations <= remaining();
+    }
+}
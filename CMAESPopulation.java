@@ -0,0 +1,447 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.Random;
+
+/**
+ * Covariance Matrix Adaptation Evolution Strategy, (mu/mu_w, lambda)-CMA-ES
+ * as described in Hansen, The CMA Evolution Strategy: A Tutorial (2016).
+ * Instead of a population of individuals it keeps a search distribution
+ * N(mean, sigma^2 * C). Every generation lambda offspring are sampled from
+ * it, and the mu best of them move the mean and update the covariance
+ * matrix (rank-one update with the evolution path pc and rank-mu update)
+ * and the step size (cumulative step-size adaptation with the path ps).
+ * The eigendecomposition C = B * D^2 * B^T needed for sampling is only
+ * recomputed every few generations.
+ *
+ * The operators map onto the generation loop of player16: mutate samples
+ * the offspring, selectSurvivors updates the distribution, selecting parents
+ * and recombining happen as part of that update. The minimum step size
+ * epsilon is not used, the step size is adapted by CSA.
+ */
+public class CMAESPopulation implements IPopulation {
+    // the initial step size as a fraction of the search range
+    private static final double INITIAL_SIGMA = 0.2;
+
+    private int n;
+    private int lambda;
+    // the number of offspring sampled this generation, fewer than lambda when the budget is nearly spent
+    private int sampled;
+    // whether the mean was sampled, which happens only once
+    private boolean meanSampled;
+    private int mu;
+    // recombination weights of the mu best offspring, and their variance effective selection mass
+    private double[] weights;
+    private double mueff;
+    // learning rates and damping
+    private double cc;
+    private double cs;
+    private double c1;
+    private double cmu;
+    private double damps;
+    // expectation of ||N(0, I)||
+    private double chiN;
+
+    // the distribution
+    private double[] mean;
+    private double sigma;
+    private double[][] C;
+    // C = B * diag(D^2) * B^T, the columns of B are the eigenvectors of C
+    private double[][] B;
+    private double[] D;
+    // evolution paths
+    private double[] pc;
+    private double[] ps;
+    // generation counter and the generation of the last eigendecomposition
+    private int generation;
+    private int eigenGeneration;
+
+    // the offspring, their steps y = (x - mean) / sigma and their fitness
+    private double[][] offspring;
+    private double[][] steps;
+    private double[] fitness;
+    private int[] order;
+    // scratch space
+    private double[] z;
+    private double[] previousMean;
+    private double[] meanStep;
+    private double[] temp;
+    private double[][] eigenScratch;
+    private Util util;
+
+    /**
+     * Constructor with only a Random object
+     *
+     * @param rnd_ Random class to be used
+     * @param util Utility class
+     * @param lambda the number of offspring per generation
+     */
+    CMAESPopulation(Random rnd_, Util util, int lambda) {
+        this.util = util;
+        this.n = Util.DIMENSION;
+        this.lambda = lambda;
+        this.sampled = lambda;
+        this.mu = lambda / 2;
+
+        // recombination weights
+        weights = new double[mu];
+        double sum = 0.0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+            sum += weights[i];
+        }
+        double sumSquares = 0.0;
+        for (int i = 0; i < mu; i++) {
+            weights[i] /= sum;
+            sumSquares += weights[i] * weights[i];
+        }
+        mueff = 1.0 / sumSquares;
+
+        // adaptation parameters
+        cc = (4.0 + mueff / n) / (n + 4.0 + 2.0 * mueff / n);
+        cs = (mueff + 2.0) / (n + mueff + 5.0);
+        c1 = 2.0 / ((n + 1.3) * (n + 1.3) + mueff);
+        cmu = Math.min(1.0 - c1, 2.0 * (mueff - 2.0 + 1.0 / mueff) / ((n + 2.0) * (n + 2.0) + mueff));
+        damps = 1.0 + 2.0 * Math.max(0.0, Math.sqrt((mueff - 1.0) / (n + 1.0)) - 1.0) + cs;
+        chiN = Math.sqrt(n) * (1.0 - 1.0 / (4.0 * n) + 1.0 / (21.0 * n * n));
+
+        // the distribution starts at a random point with C = I
+        mean = new double[n];
+        for (int i = 0; i < n; i++) {
+            mean[i] = Util.MIN_VALUE + rnd_.nextDouble() * (Util.MAX_VALUE - Util.MIN_VALUE);
+        }
+        sigma = INITIAL_SIGMA * (Util.MAX_VALUE - Util.MIN_VALUE);
+        C = new double[n][n];
+        B = new double[n][n];
+        D = new double[n];
+        for (int i = 0; i < n; i++) {
+            C[i][i] = 1.0;
+            B[i][i] = 1.0;
+            D[i] = 1.0;
+        }
+        pc = new double[n];
+        ps = new double[n];
+
+        offspring = new double[lambda][n];
+        steps = new double[lambda][n];
+        fitness = new double[lambda];
+        order = new int[lambda];
+        z = new double[n];
+        previousMean = new double[n];
+        meanStep = new double[n];
+        temp = new double[n];
+        eigenScratch = new double[n][n];
+    }
+
+    /**
+     * @return the default number of offspring, 4 + floor(3 ln n)
+     */
+    static int defaultLambda() {
+        return 4 + (int) (3 * Math.log(Util.DIMENSION));
+    }
+
+    /* *******************
+     * EVALUATIONS
+     *********************/
+
+    /**
+     * There is no initial population, only the initial distribution,
+     * so nothing is evaluated.
+     */
+    @Override
+    public int evalInitialPopulation(ContestEvaluation eval) {
+        return 0;
+    }
+
+    @Override
+    public int evalOffspring(ContestEvaluation eval) {
+        if (util.EVALUATION_THREADS > 1 && eval instanceof ThreadSafeEvaluation) {
+            return ParallelEvaluator.get(util.EVALUATION_THREADS)
+                    .evaluate(eval, offspring, fitness, 0, sampled);
+        }
+        int evaluations = 0;
+        for (int k = 0; k < sampled; k++) {
+            fitness[k] = (double) eval.evaluate(offspring[k]);
+            evaluations++;
+        }
+        return evaluations;
+    }
+
+    /**
+     * A generation the budget cannot fill samples fewer offspring, the first
+     * of them at the mean, which is the best estimate of the optimum.
+     * The mean is only sampled once, so a fitness cache cannot answer it forever.
+     */
+    @Override
+    public void setEvaluationBudget(int evaluations) {
+        sampled = Math.max(0, Math.min(lambda, evaluations));
+    }
+
+    /* *******************
+     * VARIATION
+     *********************/
+
+    /**
+     * The parents are the mu best offspring, they are chosen in selectSurvivors.
+     */
+    @Override
+    public void selectParents(Random rnd_) {
+    }
+
+    /**
+     * The parents are recombined into the mean in selectSurvivors.
+     */
+    @Override
+    public void recombine(Random rnd_) {
+    }
+
+    /**
+     * Samples the offspring x = mean + sigma * B * D * z, z ~ N(0, I).
+     * Offspring outside the bounds are put on the boundary, and their step
+     * is taken from the repaired point so the update sees where they really are.
+     * The first time fewer than lambda are sampled, the first one is the mean itself.
+     */
+    @Override
+    public void mutate(Random rnd_, double epsilon) {
+        if (generation - eigenGeneration > lambda / (c1 + cmu) / n / 10.0) {
+            updateEigensystem();
+        }
+        for (int k = 0; k < sampled; k++) {
+            boolean atMean = k == 0 && sampled < lambda && !meanSampled;
+            meanSampled |= atMean;
+            for (int i = 0; i < n; i++) {
+                z[i] = atMean ? 0.0 : D[i] * rnd_.nextGaussian();
+            }
+            double[] x = offspring[k];
+            double[] y = steps[k];
+            for (int i = 0; i < n; i++) {
+                double step = 0.0;
+                for (int j = 0; j < n; j++) {
+                    step += B[i][j] * z[j];
+                }
+                x[i] = Math.min(Util.MAX_VALUE, Math.max(Util.MIN_VALUE, mean[i] + sigma * step));
+                y[i] = (x[i] - mean[i]) / sigma;
+            }
+        }
+    }
+
+    /* ****************************
+     * SURVIVOR SELECTION
+     ******************************/
+
+    /**
+     * Updates the mean, the evolution paths, the covariance matrix and the
+     * step size from the mu best offspring. A generation cut short by the
+     * budget is the last one, so the distribution is not updated from it.
+     */
+    @Override
+    public void selectSurvivors() {
+        if (sampled < lambda) {
+            return;
+        }
+        for (int k = 0; k < lambda; k++) {
+            order[k] = k;
+        }
+        PartialSort.selectBest(fitness, order, lambda, mu);
+        PartialSort.sortDescending(fitness, order, 0, mu - 1);
+        generation++;
+
+        // move the mean to the weighted mean of the mu best
+        System.arraycopy(mean, 0, previousMean, 0, n);
+        for (int i = 0; i < n; i++) {
+            double m = 0.0;
+            for (int r = 0; r < mu; r++) {
+                m += weights[r] * offspring[order[r]][i];
+            }
+            mean[i] = m;
+            meanStep[i] = (mean[i] - previousMean[i]) / sigma;
+        }
+
+        // step-size path, using C^(-1/2) * meanStep = B * D^-1 * B^T * meanStep
+        for (int j = 0; j < n; j++) {
+            double t = 0.0;
+            for (int i = 0; i < n; i++) {
+                t += B[i][j] * meanStep[i];
+            }
+            temp[j] = t / D[j];
+        }
+        double psFactor = Math.sqrt(cs * (2.0 - cs) * mueff);
+        double psNorm = 0.0;
+        for (int i = 0; i < n; i++) {
+            double t = 0.0;
+            for (int j = 0; j < n; j++) {
+                t += B[i][j] * temp[j];
+            }
+            ps[i] = (1.0 - cs) * ps[i] + psFactor * t;
+            psNorm += ps[i] * ps[i];
+        }
+        psNorm = Math.sqrt(psNorm);
+
+        // covariance path, stalled while ps is large
+        double hsig = psNorm / Math.sqrt(1.0 - Math.pow(1.0 - cs, 2.0 * generation)) / chiN
+                < 1.4 + 2.0 / (n + 1.0) ? 1.0 : 0.0;
+        double pcFactor = hsig * Math.sqrt(cc * (2.0 - cc) * mueff);
+        for (int i = 0; i < n; i++) {
+            pc[i] = (1.0 - cc) * pc[i] + pcFactor * meanStep[i];
+        }
+
+        // rank-one and rank-mu update of C, the upper triangle is mirrored
+        double oldWeight = 1.0 - c1 - cmu + (1.0 - hsig) * c1 * cc * (2.0 - cc);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                double rankMu = 0.0;
+                for (int r = 0; r < mu; r++) {
+                    double[] y = steps[order[r]];
+                    rankMu += weights[r] * y[i] * y[j];
+                }
+                C[i][j] = oldWeight * C[i][j] + c1 * pc[i] * pc[j] + cmu * rankMu;
+                C[j][i] = C[i][j];
+            }
+        }
+
+        // cumulative step-size adaptation
+        sigma *= Math.exp((cs / damps) * (psNorm / chiN - 1.0));
+    }
+
+    /**
+     * Recomputes B and D from C with the cyclic Jacobi eigenvalue method.
+     */
+    private void updateEigensystem() {
+        eigenGeneration = generation;
+        double[][] a = eigenScratch;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(C[i], 0, a[i], 0, n);
+            for (int j = 0; j < n; j++) {
+                B[i][j] = i == j ? 1.0 : 0.0;
+            }
+        }
+        for (int sweep = 0; sweep < 50; sweep++) {
+            double offDiagonal = 0.0;
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    offDiagonal += a[p][q] * a[p][q];
+                }
+            }
+            if (offDiagonal < 1e-30) {
+                break;
+            }
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    if (a[p][q] == 0.0) {
+                        continue;
+                    }
+                    // the rotation that zeroes a[p][q]
+                    double theta = (a[q][q] - a[p][p]) / (2.0 * a[p][q]);
+                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+                    if (theta == 0.0) {
+                        t = 1.0;
+                    }
+                    double c = 1.0 / Math.sqrt(t * t + 1.0);
+                    double s = t * c;
+                    for (int k = 0; k < n; k++) {
+                        double akp = a[k][p];
+                        double akq = a[k][q];
+                        a[k][p] = c * akp - s * akq;
+                        a[k][q] = s * akp + c * akq;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double apk = a[p][k];
+                        double aqk = a[q][k];
+                        a[p][k] = c * apk - s * aqk;
+                        a[q][k] = s * apk + c * aqk;
+                    }
+                    for (int k = 0; k < n; k++) {
+                        double bkp = B[k][p];
+                        double bkq = B[k][q];
+                        B[k][p] = c * bkp - s * bkq;
+                        B[k][q] = s * bkp + c * bkq;
+                    }
+                }
+            }
+        }
+        // rounding can make tiny eigenvalues negative
+        for (int i = 0; i < n; i++) {
+            D[i] = Math.sqrt(Math.max(a[i][i], 1e-20));
+        }
+    }
+
+    /* ****************************
+     * STATISTICS
+     ******************************/
+
+    @Override
+    public void printFitness() {
+        StringBuilder s = new StringBuilder();
+        s.append("[");
+        for (int k = 0; k < lambda; k++) {
+            s.append(fitness[k]);
+            s.append(", ");
+            if ((k + 1) % 8 == 0) {
+                s.append("\n");
+            }
+        }
+        s.append("]\n");
+        System.out.print(s.toString());
+    }
+
+    /**
+     * Computes the sum of the allele-values of the current offspring.
+     */
+    @Override
+    public double[] getSumValues() {
+        double[] sumValues = new double[Util.DIMENSION];
+        for (int k = 0; k < lambda; k++) {
+            for (int i = 0; i < n; i++) {
+                sumValues[i] += offspring[k][i];
+            }
+        }
+        return sumValues;
+    }
+
+    /**
+     * Computes population diversity measure due to Morrison & de Jong (2001)
+     * over the current offspring.
+     */
+    @Override
+    public double[] getDiversity(double[] meanValues) {
+        double[] diversity = new double[Util.DIMENSION];
+        for (int k = 0; k < lambda; k++) {
+            for (int i = 0; i < n; i++) {
+                double d = offspring[k][i] - meanValues[i];
+                diversity[i] += d * d;
+            }
+        }
+        return diversity;
+    }
+
+    /**
+     * Returns the highest fitness of the current offspring.
+     */
+    @Override
+    public double getBestFitness() {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < lambda; k++) {
+            best = Math.max(best, fitness[k]);
+        }
+        return best;
+    }
+
+    /**
+     * Records the statistics of the current offspring, with the global step size as the sigma.
+     */
+    @Override
+    public void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations) {
+        double worst = Double.POSITIVE_INFINITY;
+        double sum = 0.0;
+        for (int k = 0; k < lambda; k++) {
+            worst = Math.min(worst, fitness[k]);
+            sum += fitness[k];
+        }
+        telemetry.append(generation, island, evaluations, getBestFitness(), sum / lambda, worst,
+                Util.meanDiversity(this, lambda), sigma);
+    }
+
+    @Override
+    public void makeExchange(Random rnd_) {
+        throw new UnsupportedOperationException();
+    }
+}
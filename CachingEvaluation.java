@@ -0,0 +1,181 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.Properties;
+
+/**
+ * Remembers the fitness of the genotypes that were evaluated, so an exact
+ * duplicate is answered from the cache without spending an evaluation.
+ * Genotypes are compared by the bits of their values. The cache is a hash
+ * table of fixed capacity: a genotype is looked for in a few slots after
+ * its hash position, and when those are all taken the oldest of them is
+ * replaced.
+ *
+ * It wraps the evaluation from the outside (also around a
+ * ConcurrentEvaluation), so hits never reach the budget accounting. The
+ * cache itself can be used from several threads; it is a
+ * ThreadSafeEvaluation when the wrapped evaluation is one.
+ */
+class CachingEvaluation implements ContestEvaluation {
+    // the number of slots looked at for every genotype
+    private static final int PROBES = 8;
+
+    private final ContestEvaluation evaluation;
+    private final int mask;
+    // the bits of the genotype in every slot, its fitness and when it was stored
+    private final long[] keys;
+    private final double[] fitness;
+    private final long[] stored;
+    private long time;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param evaluation the evaluation to wrap
+     * @param capacity the number of genotypes to remember, rounded up to a power of two
+     */
+    CachingEvaluation(ContestEvaluation evaluation, int capacity) {
+        this.evaluation = evaluation;
+        int slots = Integer.highestOneBit(Math.max(PROBES, capacity - 1)) << 1;
+        this.mask = slots - 1;
+        this.keys = new long[slots * Util.DIMENSION];
+        this.fitness = new double[slots];
+        this.stored = new long[slots];
+    }
+
+    /**
+     * Wraps an evaluation in a cache that is thread safe if the evaluation is.
+     *
+     * @param evaluation the evaluation to wrap
+     * @param capacity the number of genotypes to remember
+     * @return the caching evaluation
+     */
+    static CachingEvaluation wrap(ContestEvaluation evaluation, int capacity) {
+        if (evaluation instanceof ThreadSafeEvaluation) {
+            return new ThreadSafe(evaluation, capacity);
+        }
+        return new CachingEvaluation(evaluation, capacity);
+    }
+
+    @Override
+    public Object evaluate(Object genotype) {
+        double[] values = (double[]) genotype;
+        int hash = hash(values);
+        synchronized (this) {
+            int slot = find(values, hash);
+            if (slot >= 0) {
+                hits++;
+                return fitness[slot];
+            }
+        }
+        Object result = evaluation.evaluate(genotype);
+        // the evaluation limit was reached, nothing to remember
+        if (result == null) {
+            return null;
+        }
+        synchronized (this) {
+            misses++;
+            store(values, hash, (Double) result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the slot holding the genotype, or -1 if it is not in the cache
+     */
+    private int find(double[] values, int hash) {
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (hash + probe) & mask;
+            if (stored[slot] != 0 && matches(slot, values)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int slot, double[] values) {
+        int offset = slot * Util.DIMENSION;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            if (keys[offset + i] != Double.doubleToLongBits(values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the genotype in the first free slot, or in the oldest one.
+     */
+    private void store(double[] values, int hash, double value) {
+        int target = hash & mask;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (hash + probe) & mask;
+            if (stored[slot] == 0) {
+                target = slot;
+                break;
+            }
+            if (stored[slot] < stored[target]) {
+                target = slot;
+            }
+        }
+        int offset = target * Util.DIMENSION;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            keys[offset + i] = Double.doubleToLongBits(values[i]);
+        }
+        fitness[target] = value;
+        stored[target] = ++time;
+    }
+
+    /**
+     * Hashes the bits of the values, finished with the mix of MurmurHash3.
+     */
+    private static int hash(double[] values) {
+        long h = 0;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            h = h * 31 + Double.doubleToLongBits(values[i]);
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * @return the number of evaluations answered from the cache
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of evaluations passed on to the wrapped evaluation
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public Object getData(Object arg) {
+        return evaluation.getData(arg);
+    }
+
+    @Override
+    public double getFinalResult() {
+        return evaluation.getFinalResult();
+    }
+
+    @Override
+    public Properties getProperties() {
+        return evaluation.getProperties();
+    }
+
+    /**
+     * The cache around a thread safe evaluation.
+     */
+    private static class ThreadSafe extends CachingEvaluation implements ThreadSafeEvaluation {
+        ThreadSafe(ContestEvaluation evaluation, int capacity) {
+            super(evaluation, capacity);
+        }
+    }
+}
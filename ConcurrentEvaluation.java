@@ -0,0 +1,85 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes any ContestEvaluation safe to call from several threads.
+ * The budget is accounted here with an atomic counter, so a call that
+ * would exceed the evaluation limit returns null without reaching the
+ * wrapped evaluation. The wrapped evaluation itself is only called
+ * concurrently when it is a ThreadSafeEvaluation; the contest
+ * evaluations keep their own state (and the BBOB ones native state),
+ * so they are called one at a time.
+ */
+class ConcurrentEvaluation implements ThreadSafeEvaluation {
+    private final ContestEvaluation evaluation;
+    private final boolean serialise;
+    private final int evaluationsLimit;
+    private final AtomicInteger evaluations;
+
+    /**
+     * @param evaluation the evaluation to wrap
+     * @param evaluationsLimit the number of evaluations that may be used
+     */
+    ConcurrentEvaluation(ContestEvaluation evaluation, int evaluationsLimit) {
+        this.evaluation = evaluation;
+        this.serialise = !(evaluation instanceof ThreadSafeEvaluation);
+        this.evaluationsLimit = evaluationsLimit;
+        this.evaluations = new AtomicInteger();
+    }
+
+    @Override
+    public Object evaluate(Object genotype) {
+        int used;
+        do {
+            used = evaluations.get();
+            if (used >= evaluationsLimit) {
+                return null;
+            }
+        } while (!evaluations.compareAndSet(used, used + 1));
+
+        if (serialise) {
+            synchronized (evaluation) {
+                return evaluation.evaluate(genotype);
+            }
+        }
+        return evaluation.evaluate(genotype);
+    }
+
+    /**
+     * @return the number of evaluations that are still available
+     */
+    int getEvaluationsLeft() {
+        return evaluationsLimit - evaluations.get();
+    }
+
+    int getEvaluationsLimit() {
+        return evaluationsLimit;
+    }
+
+    @Override
+    public Object getData(Object arg) {
+        if (serialise) {
+            synchronized (evaluation) {
+                return evaluation.getData(arg);
+            }
+        }
+        return evaluation.getData(arg);
+    }
+
+    @Override
+    public double getFinalResult() {
+        if (serialise) {
+            synchronized (evaluation) {
+                return evaluation.getFinalResult();
+            }
+        }
+        return evaluation.getFinalResult();
+    }
+
+    @Override
+    public Properties getProperties() {
+        return evaluation.getProperties();
+    }
+}
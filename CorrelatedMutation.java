@@ -0,0 +1,91 @@
+import java.util.Random;
+
+/**
+ * Correlated mutation with n step sizes and n(n-1)/2 rotation angles.
+ * The change in x is drawn as R * diag(sigmas) * z, where z is standard
+ * normal and R is the product of the rotations in the planes (i, j), one
+ * for every angle. Applying the rotations one after another gives the
+ * sample in O(n^2) without building a covariance matrix or decomposing it,
+ * and the distribution is valid for any angles.
+ * One object is used per population, it only holds scratch space.
+ */
+class CorrelatedMutation {
+    // standard deviation of the change of the angles
+    private static final double BETA = 5;
+
+    private final int n;
+    private final int nAlpha;
+    private final Util util;
+    // the sample while it is being rotated
+    private final double[] dx;
+
+    CorrelatedMutation(Util util) {
+        this.n = Util.DIMENSION;
+        this.nAlpha = n * (n - 1) / 2;
+        this.util = util;
+        this.dx = new double[n];
+    }
+
+    /**
+     * @return the number of angles every individual needs
+     */
+    static int alphaCount() {
+        return Util.DIMENSION * (Util.DIMENSION - 1) / 2;
+    }
+
+    /**
+     * Mutates the step sizes and angles of an individual and then its genotype.
+     * The angle of the plane (i, j), i < j, is found at position
+     * i * n - i * (i + 1) / 2 + (j - i - 1) after {@param alphaOffset}.
+     *
+     * @param rnd_ Random object to be used
+     * @param epsilon the minimum step size
+     * @param values the array holding the genotype
+     * @param sigmas the array holding the step sizes
+     * @param offset the position of the genotype and the step sizes in their arrays
+     * @param alphas the array holding the angles
+     * @param alphaOffset the position of the angles in their array
+     */
+    void mutate(Random rnd_, double epsilon, double[] values, double[] sigmas, int offset,
+                double[] alphas, int alphaOffset) {
+        double tau = util.tauSimple;
+        double tauGauss = util.tauPrime * rnd_.nextGaussian();
+
+        // mutate sigmas
+        for (int i = offset; i < offset + n; i++) {
+            sigmas[i] = Math.max(epsilon, sigmas[i] * Math.exp(tauGauss + tau * rnd_.nextGaussian()));
+        }
+
+        // mutate alphas and keep them in [-pi, pi]
+        for (int k = alphaOffset; k < alphaOffset + nAlpha; k++) {
+            alphas[k] += BETA * rnd_.nextGaussian();
+            if (Math.abs(alphas[k]) > Math.PI) {
+                alphas[k] -= 2 * Math.PI * Math.signum(alphas[k]);
+            }
+        }
+
+        // scale the standard normal sample by the step sizes
+        for (int i = 0; i < n; i++) {
+            dx[i] = sigmas[offset + i] * rnd_.nextGaussian();
+        }
+
+        // rotate it, the last rotation of the product is applied first
+        int k = alphaOffset + nAlpha - 1;
+        for (int i = n - 2; i >= 0; i--) {
+            for (int j = n - 1; j > i; j--) {
+                double alpha = alphas[k--];
+                double cos = Math.cos(alpha);
+                double sin = Math.sin(alpha);
+                double a = dx[i];
+                double b = dx[j];
+                dx[i] = a * cos - b * sin;
+                dx[j] = a * sin + b * cos;
+            }
+        }
+
+        // mutate the genotype
+        for (int i = 0; i < n; i++) {
+            values[offset + i] = Math.min(Util.MAX_VALUE, Math.max(Util.MIN_VALUE, values[offset + i] + dx[i]));
+        }
+    }
+}
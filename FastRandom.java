@@ -0,0 +1,211 @@
+import java.util.Random;
+
+/**
+ * A random generator for one thread, used in place of java.util.Random when
+ * Util.FAST_RANDOM is set. java.util.Random keeps its seed in an AtomicLong
+ * and draws its Gaussians with the polar method under a lock, with
+ * StrictMath.log and sqrt; this generator has no shared state at all.
+ *
+ * The numbers come from xoshiro256** (Blackman and Vigna), seeded through
+ * splitmix64. split() hands out an independent generator by jumping 2^128
+ * numbers ahead, so the islands of the island model draw from streams that
+ * never overlap. The Gaussians are drawn with the ziggurat method (Marsaglia
+ * and Tsang) with 128 layers: almost every sample costs one 64-bit number, a
+ * multiplication and a comparison. The layer and the value are taken from
+ * different bits of the number, so they are independent.
+ *
+ * It extends Random so it can be passed wherever the populations take one.
+ * It is not thread safe.
+ */
+class FastRandom extends Random {
+    // Random is Serializable, so a version is declared, although a FastRandom is never serialized
+    private static final long serialVersionUID = 1L;
+    // the number of layers of the ziggurat, a power of two
+    private static final int LAYERS = 128;
+    // the start of the tail and the area of every layer, for 128 layers
+    private static final double R = 3.442619855899;
+    private static final double AREA = 9.91256303526217e-3;
+    // the right edge of every layer and the density there; X[0] is the width of
+    // the bottom layer that includes the tail, X[LAYERS] is 0
+    private static final double[] X = new double[LAYERS + 1];
+    private static final double[] F = new double[LAYERS + 1];
+    // the jump polynomial of xoshiro256**, 2^128 steps
+    private static final long[] JUMP = {0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL,
+            0x39abdc4529b1661cL};
+
+    static {
+        X[0] = AREA / density(R);
+        X[1] = R;
+        for (int i = 1; i < LAYERS - 1; i++) {
+            X[i + 1] = Math.sqrt(-2.0 * Math.log(AREA / X[i] + density(X[i])));
+        }
+        X[LAYERS] = 0.0;
+        for (int i = 0; i <= LAYERS; i++) {
+            F[i] = density(X[i]);
+        }
+    }
+
+    // the state; not initialised in its declaration, because the constructor
+    // of Random sets it through setSeed before the fields of this class would be
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    FastRandom(long seed) {
+        super(seed);
+    }
+
+    private FastRandom(long s0, long s1, long s2, long s3) {
+        super(0);
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    /**
+     * Fills the state with splitmix64 from the seed, which never gives a state of only zeros.
+     */
+    @Override
+    public void setSeed(long seed) {
+        s0 = splitMix(seed += 0x9e3779b97f4a7c15L);
+        s1 = splitMix(seed += 0x9e3779b97f4a7c15L);
+        s2 = splitMix(seed += 0x9e3779b97f4a7c15L);
+        s3 = splitMix(seed + 0x9e3779b97f4a7c15L);
+    }
+
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * The other methods of Random (nextInt, nextBoolean, ...) draw their bits here.
+     */
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public double nextGaussian() {
+        long bits = nextLong();
+        int layer = (int) bits & (LAYERS - 1);
+        // the upper 53 bits as a signed value in [-1, 1)
+        double x = (bits >> 11) * 0x1.0p-52 * X[layer];
+        if (Math.abs(x) < X[layer + 1]) {
+            return x;
+        }
+        return nextGaussianSlow(layer, x);
+    }
+
+    /**
+     * The rare case of a sample that is not in the part of its layer that
+     * lies below the density everywhere: the tail for the bottom layer,
+     * otherwise a test against the density itself, and a new sample when it fails.
+     */
+    private double nextGaussianSlow(int layer, double x) {
+        while (true) {
+            if (layer == 0) {
+                double a;
+                double b;
+                do {
+                    a = -Math.log(1.0 - nextDouble()) / R;
+                    b = -Math.log(1.0 - nextDouble());
+                } while (b + b < a * a);
+                return x > 0 ? R + a : -R - a;
+            }
+            if (F[layer] + nextDouble() * (F[layer + 1] - F[layer]) < density(x)) {
+                return x;
+            }
+            long bits = nextLong();
+            layer = (int) bits & (LAYERS - 1);
+            x = (bits >> 11) * 0x1.0p-52 * X[layer];
+            if (Math.abs(x) < X[layer + 1]) {
+                return x;
+            }
+        }
+    }
+
+    private static double density(double x) {
+        return Math.exp(-0.5 * x * x);
+    }
+
+    /**
+     * Fills values[from .. to) with standard normal samples.
+     */
+    void nextGaussians(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] = nextGaussian();
+        }
+    }
+
+    /**
+     * Fills values[from .. to) with standard normal samples, in bulk when the
+     * generator is a FastRandom.
+     *
+     * @param rnd_ the random generator
+     * @param values the array to fill
+     * @param from the first index
+     * @param to the index after the last one
+     */
+    static void nextGaussians(Random rnd_, double[] values, int from, int to) {
+        if (rnd_ instanceof FastRandom) {
+            ((FastRandom) rnd_).nextGaussians(values, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            values[i] = rnd_.nextGaussian();
+        }
+    }
+
+    /**
+     * Hands out a generator that continues from the current state, and
+     * jumps this one 2^128 numbers ahead, so the two streams do not overlap.
+     *
+     * @return the new generator
+     */
+    FastRandom split() {
+        FastRandom split = new FastRandom(s0, s1, s2, s3);
+        long t0 = 0;
+        long t1 = 0;
+        long t2 = 0;
+        long t3 = 0;
+        for (long jump: JUMP) {
+            for (int b = 0; b < 64; b++) {
+                if ((jump & (1L << b)) != 0) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+        return split;
+    }
+}
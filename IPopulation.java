@@ -24,6 +24,15 @@ public interface IPopulation {
      */
     int evalOffspring(ContestEvaluation eval);
 
+    /**
+     * Limits the offspring of the next generations to the evaluations that
+     * are left. A population that would create more children creates only
+     * as many as can be evaluated, from its most promising parents.
+     *
+     * @param evaluations the evaluations left for the offspring
+     */
+    void setEvaluationBudget(int evaluations);
+
     /**
      * Selects the parents used to create children
      */
@@ -60,5 +69,20 @@ public interface IPopulation {
      */
     double[] getDiversity(double[] meanValues);
 
+    /**
+     * Returns the highest fitness in the population
+     */
+    double getBestFitness();
+
+    /**
+     * Appends the statistics of the current generation to the telemetry log
+     *
+     * @param telemetry the log
+     * @param island the island the population is recorded as; the island model numbers its islands itself
+     * @param generation the generation
+     * @param evaluations the evaluations used so far
+     */
+    void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations);
+
     void makeExchange(Random rnd_);
 }
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -16,10 +17,8 @@ class Individual {
     private double sigma = Util.MUTATION_STEP_SIZE;
     // the mutation step sizes used for uncorrelated mutations with n steps
     private double[] sigmas;
-    // alphas used for the correlated mutation
+    // rotation angles used for the correlated mutation, created when it is first used
     private double[] alphas;
-    // covariance matrix used for the correlated mutation
-    private double[][] cov;
     // rank of this individual in the population
     private int rank;
     // Utility class
@@ -62,7 +61,67 @@ class Individual {
         }
     }
 
-    void mutate(Util.Mutation mutation, Random rnd_, double epsilon) {
+    /**
+     * Constructor for an empty individual, used to fill the offspring pool
+     *
+     * @param util Utility class
+     */
+    Individual(Util util) {
+        this.util = util;
+        this.values = new double[Util.DIMENSION];
+        this.sigmas = new double[Util.DIMENSION];
+        reset();
+    }
+
+    /**
+     * Resets everything but the values, so that a pooled individual
+     * starts like one created from a parent's values.
+     */
+    void reset() {
+        this.fitness = 0.0;
+        this.rank = 0;
+        this.selectionProbability = 0.0;
+        this.sigma = Util.MUTATION_STEP_SIZE;
+        for (int i = 0; i < this.sigmas.length; i++) {
+            this.sigmas[i] = sigma;
+        }
+        if (this.alphas != null) {
+            Arrays.fill(this.alphas, 0.0);
+        }
+    }
+
+    /**
+     * Copies the values and the strategy parameters of another individual.
+     *
+     * @param other the individual to copy
+     */
+    void copyFrom(Individual other) {
+        System.arraycopy(other.values, 0, this.values, 0, Util.DIMENSION);
+        System.arraycopy(other.sigmas, 0, this.sigmas, 0, Util.DIMENSION);
+        this.fitness = other.fitness;
+        this.rank = other.rank;
+        this.selectionProbability = other.selectionProbability;
+        this.sigma = other.sigma;
+        if (other.alphas != null) {
+            if (this.alphas == null) {
+                this.alphas = new double[other.alphas.length];
+            }
+            System.arraycopy(other.alphas, 0, this.alphas, 0, other.alphas.length);
+        }
+        else if (this.alphas != null) {
+            Arrays.fill(this.alphas, 0.0);
+        }
+    }
+
+    /**
+     * Mutates the individual
+     *
+     * @param mutation the kind of mutation
+     * @param rnd_ Random object to be used
+     * @param epsilon the minimum step size
+     * @param correlated the engine used for the correlated mutation
+     */
+    void mutate(Util.Mutation mutation, Random rnd_, double epsilon, CorrelatedMutation correlated) {
         switch (mutation) {
             case UNIFORM:
                 uniformMutation(rnd_);
@@ -77,7 +136,10 @@ class Individual {
                 uncorrelatedMutationNStep(rnd_, epsilon);
                 break;
             case CORRELATED:
-                correlatedMutation(rnd_, epsilon);
+                if (this.alphas == null) {
+                    this.alphas = new double[CorrelatedMutation.alphaCount()];
+                }
+                correlated.mutate(rnd_, epsilon, this.values, this.sigmas, 0, this.alphas, 0);
                 break;
             default:
                 System.err.println("Invalid mutation");
@@ -92,6 +154,20 @@ class Individual {
         this.fitness = fitness;
     }
 
+    /**
+     * @return the step size of the one step mutation, or the mean of the n step sizes otherwise
+     */
+    double getMeanSigma() {
+        if (util.mutation == Util.Mutation.UNCORRELATED_ONE_STEP) {
+            return sigma;
+        }
+        double sum = 0.0;
+        for (double s: sigmas) {
+            sum += s;
+        }
+        return sum / sigmas.length;
+    }
+
     double getSelectionProbability() {
         return selectionProbability;
     }
@@ -169,106 +245,6 @@ class Individual {
         }
     }
 
-    /**
-     * Correlated mutation
-     *
-     * @param rnd_ Random object to be used
-     */
-    private void correlatedMutation(Random rnd_, double epsilon) {
-        // initialize parameters
-        double tau = util.tauSimple;
-        double tauPrime = util.tauPrime;
-        double beta = 5;
-        int n = Util.DIMENSION;
-
-        // calculate n alpha
-        int nAlpha = n * (n - 1) / 2;
-        // calculate tau multiplied by a normal distribution sample
-        double tauGauss = tauPrime * rnd_.nextGaussian();
-
-        // initialize arrays
-        this.alphas = new double[nAlpha];
-        // covariance matrix
-        this.cov = new double[n][n];
-        // change in x to be added (sampled from the multivariate normal dist)
-        double[] dx;
-
-        // mutate sigmas
-        for (int i = 0; i < n; i++) {
-            this.sigmas[i] = Math.max(epsilon, this.sigmas[i] * Math.exp(
-                    tauGauss + tau * rnd_.nextGaussian()));
-        }
-
-        // mutate alphas
-        for (int j = 0; j < nAlpha; j++) {
-            this.alphas[j] += beta * rnd_.nextGaussian();
-            if (Math.abs(this.alphas[j]) > Math.PI) {
-                this.alphas[j] -= 2 * Math.PI * Math.signum(this.alphas[j]);
-            }
-        }
-
-        // calculate covariance matrix
-        calculateCovarianceMatrix(n);
-
-        // get the samples from the multivariate normal distribution
-        dx = multivariateNormalDistribution(n, rnd_)[0];
-        // mutate the genotype
-        for (int i = 0; i < n; i++) {
-            this.values[i] += dx[i];
-            this.values[i] = keepInRange(this.values[i]);
-        }
-    }
-
-    /**
-     * Generates values from the Multivariate Normal Distribution
-     * @param n the dimension
-     * @param rnd_ the randomizer
-     * @return the samples from the distribution
-     */
-    private double[][] multivariateNormalDistribution(int n, Random rnd_) {
-        // covariance matrix
-        Matrix covMatrix = new Matrix(this.cov);
-        // generate the L from the Cholesky Decomposition
-        Matrix L = covMatrix.chol().getL();
-
-        // draw samples from the normal gaussian
-        double[] normSamples = new double[n];
-        for (int i = 0; i < n; i++) {
-            normSamples[i] = rnd_.nextGaussian();
-        }
-
-        // construct Matrix
-        Matrix z = new Matrix(normSamples, 1);
-        return L.times(z.transpose()).transpose().getArray();
-    }
-
-    /**
-     * Calculates the covariance matrix
-     *
-     * @param n dimension of the function
-     */
-    private void calculateCovarianceMatrix(int n) {
-        // index used to traverse the alphas array
-        int alphaIndex = 0;
-        // calculate values on the diagonal and above it
-        for (int i = 0; i < n; i++) {
-            this.cov[i][i] = Math.pow(this.sigmas[i], 2);
-            for (int j = i + 1; j < n; j++) {
-                this.cov[i][j] = 0.5 * (Math.pow(this.sigmas[i], 2) -
-                        Math.pow(this.sigmas[j], 2)) * Math.tan(
-                                2 * this.alphas[alphaIndex]);
-            }
-            alphaIndex++;
-        }
-
-        // calculate values under the diagonal
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < i; j++) {
-                this.cov[i][j] = this.cov[j][i];
-            }
-        }
-    }
-
     /**
      * Generates values in range [-5,5]
      *
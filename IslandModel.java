@@ -1,13 +1,35 @@
 import org.vu.contest.ContestEvaluation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class IslandModel implements IPopulation {
+    // threads the islands run on when they evolve concurrently
+    private static final ExecutorService ISLAND_THREADS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "island");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private List<Population> populations;
+    // the random generator of every island when they evolve concurrently
+    private Random[] randoms;
+    // for asynchronous migration: the mailboxes every island posts to and collects from
+    private List<List<Mailbox>> outboxes;
+    private List<List<Mailbox>> inboxes;
     private int numberPopulations;
+    // the islands that get one evaluation more than their share of the budget
+    private boolean[] favoured;
+    // the timings of every island, when Util.INSTRUMENT is set
+    private PhaseStatistics[] statistics;
     private Util util;
 
     public IslandModel(Random rnd_, Util util, int populationSize) {
@@ -18,6 +40,234 @@ public class IslandModel implements IPopulation {
         for (int i = 0; i < numberPopulations; i++) {
             populations.add(new Population(rnd_, util, subPopSize));
         }
+        if (util.PARALLEL_ISLANDS) {
+            randoms = new Random[numberPopulations];
+            for (int i = 0; i < numberPopulations; i++) {
+                randoms[i] = Util.split(rnd_);
+            }
+        }
+        if (util.PARALLEL_ISLANDS && util.ASYNC_MIGRATION) {
+            createMailboxes();
+        }
+        statistics = new PhaseStatistics[numberPopulations];
+        for (int i = 0; i < numberPopulations; i++) {
+            statistics[i] = new PhaseStatistics("Island " + i);
+        }
+        favoured = new boolean[numberPopulations];
+    }
+
+    /**
+     * Lets the surrogate pre-screen the offspring of every island.
+     *
+     * @param surrogate the surrogate, or null to evaluate every child
+     */
+    void setSurrogate(Surrogate surrogate) {
+        for (Population population: populations) {
+            population.setSurrogate(surrogate);
+        }
+    }
+
+    /**
+     * Lets every island record the time of its phases in the given
+     * statistics instead of its own, so they can be kept over restarts.
+     *
+     * @param statistics the statistics of every island, or null to keep its own
+     */
+    void setStatistics(PhaseStatistics[] statistics) {
+        if (statistics != null) {
+            this.statistics = statistics;
+        }
+    }
+
+    /**
+     * Creates a mailbox for every edge of the topology. The edges are
+     * the same as the ones used by the synchronous exchanges; with the
+     * random topology every island can post to every other island.
+     */
+    private void createMailboxes() {
+        outboxes = new ArrayList<>();
+        inboxes = new ArrayList<>();
+        for (int i = 0; i < numberPopulations; i++) {
+            outboxes.add(new ArrayList<>());
+            inboxes.add(new ArrayList<>());
+        }
+        switch (util.topology) {
+            case RING:
+                // island i receives from island i + 1
+                for (int i = 0; i < numberPopulations; i++) {
+                    connect((i + 1) % numberPopulations, i);
+                }
+                break;
+            case TORUS:
+                int n = Util.TORUS_N;
+                int m = Util.TORUS_M;
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < m; j++) {
+                        int island = i * m + j;
+                        // left, right, up and down neighbour
+                        connect(i * m + (j + m - 1) % m, island);
+                        connect(i * m + (j + 1) % m, island);
+                        connect(((i + n - 1) % n) * m + j, island);
+                        connect(((i + 1) % n) * m + j, island);
+                    }
+                }
+                break;
+            case RANDOM:
+                for (int i = 0; i < numberPopulations; i++) {
+                    for (int j = 0; j < numberPopulations; j++) {
+                        if (i != j) {
+                            connect(i, j);
+                        }
+                    }
+                }
+                break;
+        }
+    }
+
+    private void connect(int from, int to) {
+        Mailbox mailbox = new Mailbox();
+        outboxes.get(from).add(mailbox);
+        inboxes.get(to).add(mailbox);
+    }
+
+    /**
+     * Runs {@param generations} complete generations on every island, each
+     * island on its own thread with its own random generator. Returns when
+     * all islands are done or the evaluation limit is reached.
+     *
+     * @param eval the evaluation shared by the islands
+     * @param generations the number of generations
+     * @param telemetry the log every island records itself in every epoch, or null
+     */
+    void evolve(ConcurrentEvaluation eval, int generations, Telemetry telemetry) {
+        List<Callable<Void>> islands = new ArrayList<>();
+        for (int i = 0; i < numberPopulations; i++) {
+            int island = i;
+            Random rnd_ = randoms[i];
+            islands.add(() -> {
+                evolveIsland(island, rnd_, eval, generations, telemetry);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> island: ISLAND_THREADS.invokeAll(islands)) {
+                island.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evolveIsland(int island, Random rnd_, ConcurrentEvaluation eval, int generations,
+                              Telemetry telemetry) {
+        Population population = populations.get(island);
+        PhaseStatistics timings = statistics[island];
+        long start;
+        for (int generation = 0; generation < generations; generation++) {
+            if (util.ASYNC_MIGRATION && generation % util.EPOCH == 0) {
+                start = PhaseStatistics.now();
+                migrate(island, rnd_);
+                timings.record(Util.Phase.MIGRATE, start, Util.N_EXCHANGED);
+            }
+            double mutationEpsilon = util.mutationEpsilon(eval.getEvaluationsLeft(), eval.getEvaluationsLimit());
+            start = PhaseStatistics.now();
+            population.selectParents(rnd_);
+            timings.record(Util.Phase.SELECT_PARENTS, start, 1);
+            start = PhaseStatistics.now();
+            population.recombine(rnd_);
+            timings.record(Util.Phase.RECOMBINE, start, 1);
+            start = PhaseStatistics.now();
+            population.mutate(rnd_, mutationEpsilon);
+            timings.record(Util.Phase.MUTATE, start, 1);
+            start = PhaseStatistics.now();
+            try {
+                int evaluations = population.evalOffspring(eval);
+                timings.record(Util.Phase.EVALUATE, start, evaluations);
+            }
+            catch (NullPointerException e) {
+                // evaluation limit reached
+                return;
+            }
+            start = PhaseStatistics.now();
+            population.selectSurvivors();
+            timings.record(Util.Phase.SELECT_SURVIVORS, start, 1);
+            if (telemetry != null && (generation + 1) % util.EPOCH == 0) {
+                population.recordTelemetry(telemetry, island, generation + 1,
+                        eval.getEvaluationsLimit() - eval.getEvaluationsLeft());
+            }
+        }
+    }
+
+    /**
+     * Asynchronous exchange of one island: posts copies of its emigrants
+     * to its outgoing mailboxes and replaces individuals by the immigrants
+     * waiting in its incoming mailboxes, at most N_EXCHANGED of them, so
+     * the population keeps its size.
+     *
+     * @param island the index of the island
+     * @param rnd_ the random generator of the island
+     */
+    private void migrate(int island, Random rnd_) {
+        Population population = populations.get(island);
+        List<Mailbox> outbox = outboxes.get(island);
+        int n = Util.N_EXCHANGED;
+        switch (util.policy) {
+            case BEST_WORST:
+                population.bestNIndividuals(n);
+                break;
+            case RANDOM_RANDOM:
+                population.randomNIndividuals(n, rnd_);
+                break;
+        }
+        switch (util.topology) {
+            case RING:
+                outbox.get(0).post(population.copyExchange(n));
+                break;
+            case TORUS:
+                for (Mailbox mailbox: outbox) {
+                    mailbox.post(population.copyExchange(n / 4));
+                }
+                break;
+            case RANDOM:
+                outbox.get(rnd_.nextInt(outbox.size())).post(population.copyExchange(n));
+                break;
+        }
+
+        List<Individual> immigrants = new ArrayList<>();
+        for (Mailbox mailbox: inboxes.get(island)) {
+            List<Individual> arrived = mailbox.collect();
+            if (arrived != null) {
+                immigrants.addAll(arrived);
+            }
+        }
+        if (immigrants.isEmpty()) {
+            population.finishExchange();
+            return;
+        }
+        // with the RANDOM topology every other island can deliver at once, but like in
+        // the synchronous exchange an island takes in at most n, chosen at random
+        if (immigrants.size() > n) {
+            Collections.shuffle(immigrants, rnd_);
+            immigrants.subList(n, immigrants.size()).clear();
+        }
+        switch (util.policy) {
+            case BEST_WORST:
+                population.removeWorst(immigrants.size());
+                break;
+            case RANDOM_RANDOM:
+                population.removeRandom(immigrants.size());
+                break;
+        }
+        population.addToPopulation(immigrants);
+        population.finishExchange();
     }
 
     @Override
@@ -32,37 +282,72 @@ public class IslandModel implements IPopulation {
     @Override
     public int evalOffspring(ContestEvaluation eval) {
         int evaluations = 0;
-        for (Population population: populations) {
-            evaluations += population.evalOffspring(eval);
+        for (int i = 0; i < numberPopulations; i++) {
+            long start = PhaseStatistics.now();
+            int island = populations.get(i).evalOffspring(eval);
+            statistics[i].record(Util.Phase.EVALUATE, start, island);
+            evaluations += island;
         }
         return evaluations;
     }
 
+    /**
+     * Shares the budget evenly between the islands; the evaluations that do
+     * not divide evenly go to the islands with the best individuals.
+     */
+    @Override
+    public void setEvaluationBudget(int evaluations) {
+        int share = evaluations / numberPopulations;
+        int extra = evaluations % numberPopulations;
+        Arrays.fill(favoured, false);
+        for (int e = 0; e < extra; e++) {
+            int best = -1;
+            for (int i = 0; i < numberPopulations; i++) {
+                if (!favoured[i] && (best < 0
+                        || populations.get(i).getBestFitness() > populations.get(best).getBestFitness())) {
+                    best = i;
+                }
+            }
+            favoured[best] = true;
+        }
+        for (int i = 0; i < numberPopulations; i++) {
+            populations.get(i).setEvaluationBudget(favoured[i] ? share + 1 : share);
+        }
+    }
+
     @Override
     public void selectParents(Random rnd_) {
-        for (Population population: populations) {
-            population.selectParents(rnd_);
+        for (int i = 0; i < numberPopulations; i++) {
+            long start = PhaseStatistics.now();
+            populations.get(i).selectParents(rnd_);
+            statistics[i].record(Util.Phase.SELECT_PARENTS, start, 1);
         }
     }
 
     @Override
     public void recombine(Random rnd_) {
-        for (Population population: populations) {
-            population.recombine(rnd_);
+        for (int i = 0; i < numberPopulations; i++) {
+            long start = PhaseStatistics.now();
+            populations.get(i).recombine(rnd_);
+            statistics[i].record(Util.Phase.RECOMBINE, start, 1);
         }
     }
 
     @Override
     public void mutate(Random rnd_, double epsilon) {
-        for (Population population: populations) {
-            population.mutate(rnd_, epsilon);
+        for (int i = 0; i < numberPopulations; i++) {
+            long start = PhaseStatistics.now();
+            populations.get(i).mutate(rnd_, epsilon);
+            statistics[i].record(Util.Phase.MUTATE, start, 1);
         }
     }
 
     @Override
     public void selectSurvivors() {
-        for (Population population: populations) {
-            population.selectSurvivors();
+        for (int i = 0; i < numberPopulations; i++) {
+            long start = PhaseStatistics.now();
+            populations.get(i).selectSurvivors();
+            statistics[i].record(Util.Phase.SELECT_SURVIVORS, start, 1);
         }
     }
 
@@ -99,6 +384,25 @@ public class IslandModel implements IPopulation {
         return diversity;
     }
 
+    @Override
+    public double getBestFitness() {
+        double best = Double.NEGATIVE_INFINITY;
+        for (Population population: populations) {
+            best = Math.max(best, population.getBestFitness());
+        }
+        return best;
+    }
+
+    /**
+     * Records every island as its own population.
+     */
+    @Override
+    public void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations) {
+        for (int i = 0; i < numberPopulations; i++) {
+            populations.get(i).recordTelemetry(telemetry, i, generation, evaluations);
+        }
+    }
+
     @Override
     public void makeExchange(Random rnd_) {
         switch (util.topology) {
@@ -111,6 +415,9 @@ public class IslandModel implements IPopulation {
             case RANDOM:
                 makeExchangeRandom(rnd_);
         }
+        for (Population population: populations) {
+            population.finishExchange();
+        }
     }
 
     private void makeExchangeRandom(Random rnd_) {
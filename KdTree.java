@@ -0,0 +1,281 @@
+/**
+ * k-d tree over points stored in a flat array, used to find all points
+ * within a radius of a query point without comparing against every point.
+ * The tree is implicit: it is a permutation of the point indices in which
+ * the node of a range is its middle element, split on the dimension with
+ * the largest spread. Small ranges are leaves that are scanned linearly.
+ * It answers radius queries and k-nearest-neighbour queries. Distances
+ * are compared squared, so no square roots are taken.
+ */
+class KdTree {
+    // ranges up to this length are not split any further
+    private static final int LEAF_SIZE = 8;
+
+    private double[] points;
+    private int dimension;
+    private int n;
+    // the point indices, ordered as the tree
+    private int[] index;
+    // the dimension the node in the middle of a range is split on
+    private int[] splitDimension;
+    // where the neighbours of the current query are written to
+    private int[] found;
+    private double[] foundDistances;
+    private int foundCount;
+    // the number of neighbours a nearest query looks for
+    private int k;
+
+    /**
+     * Builds the tree over the first n points. Point i occupies
+     * points[i * dimension .. (i + 1) * dimension). The points are not
+     * copied, so they must not change while the tree is used.
+     *
+     * @param points the coordinates of the points
+     * @param n the number of points
+     * @param dimension the number of coordinates per point
+     */
+    void build(double[] points, int n, int dimension) {
+        this.points = points;
+        this.n = n;
+        this.dimension = dimension;
+        if (index == null || index.length < n) {
+            index = new int[n];
+            splitDimension = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        build(0, n);
+    }
+
+    private void build(int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int axis = widestDimension(lo, hi);
+        select(lo, hi - 1, mid, axis);
+        splitDimension[mid] = axis;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    /**
+     * Finds all points within the radius of the query point, which may
+     * be one of the points of the tree itself.
+     *
+     * @param query the array holding the query point
+     * @param offset the position of the query point in that array
+     * @param radiusSquared the squared radius
+     * @param neighbours the array the indices of the points are written to
+     * @param distancesSquared the array their squared distances are written to
+     * @return the number of points found
+     */
+    int neighbours(double[] query, int offset, double radiusSquared,
+                   int[] neighbours, double[] distancesSquared) {
+        found = neighbours;
+        foundDistances = distancesSquared;
+        foundCount = 0;
+        search(0, n, query, offset, radiusSquared);
+        found = null;
+        foundDistances = null;
+        return foundCount;
+    }
+
+    /**
+     * Finds the k points closest to the query point. They are written
+     * as a max-heap on distance, so the farthest of them comes first.
+     *
+     * @param query the array holding the query point
+     * @param offset the position of the query point in that array
+     * @param k the number of points to find
+     * @param neighbours the array the indices of the points are written to
+     * @param distancesSquared the array their squared distances are written to
+     * @return the number of points found, k unless the tree has fewer points
+     */
+    int nearest(double[] query, int offset, int k, int[] neighbours, double[] distancesSquared) {
+        found = neighbours;
+        foundDistances = distancesSquared;
+        foundCount = 0;
+        this.k = k;
+        searchNearest(0, n, query, offset);
+        found = null;
+        foundDistances = null;
+        return foundCount;
+    }
+
+    private void searchNearest(int lo, int hi, double[] query, int offset) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                offer(index[i], query, offset);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int point = index[mid];
+        offer(point, query, offset);
+
+        int axis = splitDimension[mid];
+        double difference = query[offset + axis] - points[point * dimension + axis];
+        if (difference <= 0) {
+            searchNearest(lo, mid, query, offset);
+            if (foundCount < k || difference * difference < foundDistances[0]) {
+                searchNearest(mid + 1, hi, query, offset);
+            }
+        }
+        else {
+            searchNearest(mid + 1, hi, query, offset);
+            if (foundCount < k || difference * difference < foundDistances[0]) {
+                searchNearest(lo, mid, query, offset);
+            }
+        }
+    }
+
+    /**
+     * Adds the point to the k nearest if it is closer than the farthest of them.
+     */
+    private void offer(int point, double[] query, int offset) {
+        double bound = foundCount < k ? Double.POSITIVE_INFINITY : foundDistances[0];
+        int p = point * dimension;
+        double distance = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            double d = query[offset + i] - points[p + i];
+            distance += d * d;
+            if (distance >= bound) {
+                return;
+            }
+        }
+        int i;
+        if (foundCount < k) {
+            // sift the new point up from the end of the heap
+            i = foundCount++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (foundDistances[parent] >= distance) {
+                    break;
+                }
+                found[i] = found[parent];
+                foundDistances[i] = foundDistances[parent];
+                i = parent;
+            }
+        }
+        else {
+            // replace the farthest point and sift down
+            i = 0;
+            while (2 * i + 1 < foundCount) {
+                int child = 2 * i + 1;
+                if (child + 1 < foundCount && foundDistances[child + 1] > foundDistances[child]) {
+                    child++;
+                }
+                if (foundDistances[child] <= distance) {
+                    break;
+                }
+                found[i] = found[child];
+                foundDistances[i] = foundDistances[child];
+                i = child;
+            }
+        }
+        found[i] = point;
+        foundDistances[i] = distance;
+    }
+
+    private void search(int lo, int hi, double[] query, int offset, double radiusSquared) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                visit(index[i], query, offset, radiusSquared);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int point = index[mid];
+        visit(point, query, offset, radiusSquared);
+
+        int axis = splitDimension[mid];
+        double difference = query[offset + axis] - points[point * dimension + axis];
+        boolean closeToPlane = difference * difference <= radiusSquared;
+        if (difference <= 0) {
+            search(lo, mid, query, offset, radiusSquared);
+            if (closeToPlane) {
+                search(mid + 1, hi, query, offset, radiusSquared);
+            }
+        }
+        else {
+            search(mid + 1, hi, query, offset, radiusSquared);
+            if (closeToPlane) {
+                search(lo, mid, query, offset, radiusSquared);
+            }
+        }
+    }
+
+    private void visit(int point, double[] query, int offset, double radiusSquared) {
+        int p = point * dimension;
+        double distance = 0.0;
+        for (int i = 0; i < dimension; i++) {
+            double d = query[offset + i] - points[p + i];
+            distance += d * d;
+            if (distance > radiusSquared) {
+                return;
+            }
+        }
+        found[foundCount] = point;
+        foundDistances[foundCount] = distance;
+        foundCount++;
+    }
+
+    /**
+     * @return the dimension in which the points of index[lo .. hi) are spread the most
+     */
+    private int widestDimension(int lo, int hi) {
+        int widest = 0;
+        double widestSpread = -1.0;
+        for (int axis = 0; axis < dimension; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double value = points[index[i] * dimension + axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Reorders index[lo .. hi] so that position k holds the point that
+     * belongs there when sorted on the axis, with smaller or equal
+     * coordinates before it and larger or equal ones after it.
+     */
+    private void select(int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            double pivot = points[index[(lo + hi) >>> 1] * dimension + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points[index[i] * dimension + axis] < pivot) {
+                    i++;
+                }
+                while (points[index[j] * dimension + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = index[i];
+                    index[i++] = index[j];
+                    index[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            }
+            else if (k >= i) {
+                lo = i;
+            }
+            else {
+                return;
+            }
+        }
+    }
+}
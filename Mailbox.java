@@ -0,0 +1,31 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free mailbox on the edge between two islands for asynchronous migration.
+ * The sending island posts its emigrants and the receiving island collects
+ * them whenever it reaches its own exchange. Emigrants that have not been
+ * collected yet are replaced by newer ones, so a slow island always
+ * receives the most recent individuals and a fast island never waits.
+ */
+class Mailbox {
+    private final AtomicReference<List<Individual>> emigrants = new AtomicReference<>();
+
+    /**
+     * Posts emigrants, replacing any that have not been collected.
+     *
+     * @param individuals copies owned by nobody else
+     */
+    void post(List<Individual> individuals) {
+        emigrants.set(individuals);
+    }
+
+    /**
+     * Takes the emigrants out of the mailbox.
+     *
+     * @return the emigrants, or null if nothing was posted since the last collect
+     */
+    List<Individual> collect() {
+        return emigrants.getAndSet(null);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Applies the non-uniform and the uncorrelated n-step mutation to a block of
+ * genotypes that lie one after the other in flat arrays, like the offspring
+ * of an ArrayPopulation, in one pass over the whole block. The Gaussian
+ * samples and the per-allele step sizes or exponents are drawn beforehand,
+ * so a kernel only does arithmetic and can work on many alleles at once.
+ *
+ * The Vector API kernel (VectorMutationKernel, in the vector folder) needs
+ * Java 16 or later and the jdk.incubator.vector module, so it is not part of
+ * the submission and is loaded by name. Without it the scalar kernel is used.
+ */
+interface MutationKernel {
+    /**
+     * values[offset + i] = clamp(values[offset + i] + steps[i] * gauss[i])
+     *
+     * @param values the genotypes
+     * @param offset the index of the first value of the block
+     * @param gauss the Gaussian samples, one per value
+     * @param steps the step size of every value
+     * @param length the number of values in the block
+     */
+    void nonUniform(double[] values, int offset, double[] gauss, double[] steps, int length);
+
+    /**
+     * sigmas[offset + i] = max(epsilon, sigmas[offset + i] * exp(exponents[i])),
+     * values[offset + i] = clamp(values[offset + i] + sigmas[offset + i] * gauss[i])
+     *
+     * @param values the genotypes
+     * @param sigmas the step sizes of the values
+     * @param offset the index of the first value of the block
+     * @param gauss the Gaussian samples, one per value
+     * @param exponents the exponent of the step size update of every value
+     * @param length the number of values in the block
+     * @param epsilon the smallest step size
+     */
+    void uncorrelatedNStep(double[] values, double[] sigmas, int offset, double[] gauss, double[] exponents,
+                           int length, double epsilon);
+
+    /**
+     * @return the Vector API kernel when it can be loaded, otherwise the scalar kernel
+     */
+    static MutationKernel load() {
+        try {
+            return (MutationKernel) Class.forName("VectorMutationKernel").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            // not compiled, or the jdk.incubator.vector module was not added
+            return new Scalar();
+        }
+    }
+
+    /**
+     * The same arithmetic, one value at a time.
+     */
+    class Scalar implements MutationKernel {
+        @Override
+        public void nonUniform(double[] values, int offset, double[] gauss, double[] steps, int length) {
+            for (int i = 0; i < length; i++) {
+                values[offset + i] = Math.min(Util.MAX_VALUE,
+                        Math.max(Util.MIN_VALUE, values[offset + i] + steps[i] * gauss[i]));
+            }
+        }
+
+        @Override
+        public void uncorrelatedNStep(double[] values, double[] sigmas, int offset, double[] gauss,
+                                      double[] exponents, int length, double epsilon) {
+            for (int i = 0; i < length; i++) {
+                int v = offset + i;
+                sigmas[v] = Math.max(epsilon, sigmas[v] * Math.exp(exponents[i]));
+                values[v] = Math.min(Util.MAX_VALUE, Math.max(Util.MIN_VALUE, values[v] + sigmas[v] * gauss[i]));
+            }
+        }
+    }
+}
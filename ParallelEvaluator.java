@@ -0,0 +1,116 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a batch of genotypes on a pool of worker threads.
+ * The batch is split into one contiguous chunk per worker; the calling
+ * thread evaluates the last chunk itself.
+ */
+class ParallelEvaluator {
+    // one evaluator per number of threads, shared by all populations
+    private static final Map<Integer, ParallelEvaluator> EVALUATORS = new HashMap<>();
+
+    private final int threads;
+    private final ExecutorService workers;
+
+    private ParallelEvaluator(int threads) {
+        this.threads = threads;
+        this.workers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "evaluator");
+            // the contest harness must be able to exit without shutting the pool down
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shared evaluator with the given number of threads.
+     *
+     * @param threads the number of threads, including the calling thread
+     * @return the evaluator
+     */
+    static synchronized ParallelEvaluator get(int threads) {
+        ParallelEvaluator evaluator = EVALUATORS.get(threads);
+        if (evaluator == null) {
+            evaluator = new ParallelEvaluator(threads);
+            EVALUATORS.put(threads, evaluator);
+        }
+        return evaluator;
+    }
+
+    /**
+     * Evaluates genotypes[0 .. count) and stores their fitness in
+     * fitness[offset .. offset + count).
+     * Like the sequential evaluation it throws a NullPointerException
+     * when the evaluation limit is reached, but only after every
+     * genotype that still fitted in the budget has been evaluated.
+     *
+     * @param eval a thread safe evaluation
+     * @param genotypes the genotypes to evaluate
+     * @param fitness the array the fitness values are written to
+     * @param offset the index in fitness of the first genotype
+     * @param count the number of genotypes
+     * @return the number of evaluations used
+     */
+    int evaluate(ContestEvaluation eval, double[][] genotypes, double[] fitness, int offset, int count) {
+        int chunk = (count + threads - 1) / threads;
+        List<Future<Boolean>> futures = new ArrayList<>(threads);
+        int from = 0;
+        while (from + chunk < count) {
+            int start = from;
+            futures.add(workers.submit(() -> evaluateRange(eval, genotypes, fitness, offset, start, start + chunk)));
+            from += chunk;
+        }
+
+        boolean complete;
+        try {
+            complete = evaluateRange(eval, genotypes, fitness, offset, from, count);
+            for (Future<Boolean> future: futures) {
+                complete &= future.get();
+            }
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        if (!complete) {
+            throw new NullPointerException("Evaluation limit reached");
+        }
+        return count;
+    }
+
+    /**
+     * Evaluates genotypes[from .. to).
+     *
+     * @return false if the evaluation limit was reached
+     */
+    private static boolean evaluateRange(ContestEvaluation eval, double[][] genotypes,
+                                         double[] fitness, int offset, int from, int to) {
+        boolean complete = true;
+        for (int i = from; i < to; i++) {
+            Object result = eval.evaluate(genotypes[i]);
+            if (result == null) {
+                complete = false;
+            }
+            else {
+                fitness[offset + i] = (double) result;
+            }
+        }
+        return complete;
+    }
+}
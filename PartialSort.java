@@ -0,0 +1,119 @@
+/**
+ * Sorting and selection of indices by their fitness, best first.
+ * The indices are ordered in place and the fitness values are read from a
+ * primitive array, so nothing is boxed or allocated.
+ */
+class PartialSort {
+    // ranges up to this length are finished with insertion sort
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    /**
+     * Reorders index[0 .. n) so that index[0 .. k) holds the k indices with
+     * the highest fitness, in no particular order (quickselect).
+     *
+     * @param fitness the fitness of every index
+     * @param index the indices to reorder
+     * @param n the number of indices
+     * @param k the number of best indices
+     */
+    static void selectBest(double[] fitness, int[] index, int n, int k) {
+        if (k <= 0 || k >= n) {
+            return;
+        }
+        int lo = 0;
+        int hi = n - 1;
+        while (hi - lo >= INSERTION_SORT_LENGTH) {
+            double pivot = medianOfThree(fitness, index, lo, (lo + hi) >>> 1, hi);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (fitness[index[i]] > pivot) {
+                    i++;
+                }
+                while (fitness[index[j]] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(index, i++, j--);
+                }
+            }
+            // [lo, j] is at least the pivot, [i, hi] at most, and in between equal to it
+            if (k - 1 <= j) {
+                hi = j;
+            }
+            else if (k - 1 >= i) {
+                lo = i;
+            }
+            else {
+                return;
+            }
+        }
+        insertionSort(fitness, index, lo, hi);
+    }
+
+    /**
+     * Sorts index[from .. to] by descending fitness.
+     *
+     * @param fitness the fitness of every index
+     * @param index the indices to sort
+     * @param from the first position to sort
+     * @param to the last position to sort (inclusive)
+     */
+    static void sortDescending(double[] fitness, int[] index, int from, int to) {
+        while (to - from >= INSERTION_SORT_LENGTH) {
+            double pivot = medianOfThree(fitness, index, from, (from + to) >>> 1, to);
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (fitness[index[i]] > pivot) {
+                    i++;
+                }
+                while (fitness[index[j]] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(index, i++, j--);
+                }
+            }
+            // recurse into the smaller half to bound the stack depth
+            if (j - from < to - i) {
+                sortDescending(fitness, index, from, j);
+                from = i;
+            }
+            else {
+                sortDescending(fitness, index, i, to);
+                to = j;
+            }
+        }
+        insertionSort(fitness, index, from, to);
+    }
+
+    private static void insertionSort(double[] fitness, int[] index, int from, int to) {
+        for (int i = from + 1; i <= to; i++) {
+            int moving = index[i];
+            double value = fitness[moving];
+            int j = i - 1;
+            while (j >= from && fitness[index[j]] < value) {
+                index[j + 1] = index[j];
+                j--;
+            }
+            index[j + 1] = moving;
+        }
+    }
+
+    private static double medianOfThree(double[] fitness, int[] index, int a, int b, int c) {
+        double x = fitness[index[a]];
+        double y = fitness[index[b]];
+        double z = fitness[index[c]];
+        if (x < y) {
+            return y < z ? y : Math.max(x, z);
+        }
+        return x < z ? x : Math.max(y, z);
+    }
+
+    private static void swap(int[] index, int i, int j) {
+        int swap = index[i];
+        index[i] = index[j];
+        index[j] = swap;
+    }
+}
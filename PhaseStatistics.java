@@ -0,0 +1,98 @@
+/**
+ * Times the phases of the evolution loop. Every phase keeps a histogram of
+ * its durations in buckets of powers of two nanoseconds, its total and its
+ * maximum duration, and how many times it ran and on how many individuals,
+ * all in preallocated arrays, so recording does not allocate.
+ * One instance is used by one thread at a time: the run has one, and every
+ * island of the island model has its own.
+ *
+ * Nothing is timed unless Util.INSTRUMENT is set; since it is a constant,
+ * the calls are then removed by the compiler.
+ */
+class PhaseStatistics {
+    // bucket b counts the durations in [2^b, 2^(b+1)) nanoseconds
+    private static final int BUCKETS = 64;
+    private static final Util.Phase[] PHASES = Util.Phase.values();
+
+    private final String name;
+    private final long[][] histogram;
+    private final long[] runs;
+    private final long[] items;
+    private final long[] totalNanos;
+    private final long[] maxNanos;
+
+    /**
+     * @param name what is timed, printed with the statistics
+     */
+    PhaseStatistics(String name) {
+        this.name = name;
+        histogram = new long[PHASES.length][BUCKETS];
+        runs = new long[PHASES.length];
+        items = new long[PHASES.length];
+        totalNanos = new long[PHASES.length];
+        maxNanos = new long[PHASES.length];
+    }
+
+    /**
+     * @return the start time of a phase, or 0 if nothing is timed
+     */
+    static long now() {
+        return Util.INSTRUMENT ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a phase that started at start and has just ended.
+     *
+     * @param phase the phase
+     * @param start the now() at the start of the phase
+     * @param count the number of individuals the phase handled, like the evaluations
+     */
+    void record(Util.Phase phase, long start, int count) {
+        if (!Util.INSTRUMENT) {
+            return;
+        }
+        long nanos = Math.max(0, System.nanoTime() - start);
+        int p = phase.ordinal();
+        histogram[p][63 - Long.numberOfLeadingZeros(nanos | 1)]++;
+        runs[p]++;
+        items[p] += count;
+        totalNanos[p] += nanos;
+        maxNanos[p] = Math.max(maxNanos[p], nanos);
+    }
+
+    /**
+     * Prints every phase that ran: how often, on how many individuals, the
+     * total time, and the mean, median, 99th percentile and maximum time.
+     * The percentiles are the upper bounds of their histogram buckets.
+     */
+    void print() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("%s%n%-17s %10s %12s %10s %12s %12s %12s %12s%n", name, "phase", "runs", "individuals",
+                "total ms", "mean ns", "median ns", "p99 ns", "max ns"));
+        for (Util.Phase phase: PHASES) {
+            int p = phase.ordinal();
+            if (runs[p] == 0) {
+                continue;
+            }
+            s.append(String.format("%-17s %10d %12d %10d %12d %12d %12d %12d%n", phase, runs[p], items[p],
+                    totalNanos[p] / 1_000_000, totalNanos[p] / runs[p], percentile(p, 0.5),
+                    percentile(p, 0.99), maxNanos[p]));
+        }
+        System.out.print(s.toString());
+    }
+
+    /**
+     * @return the upper bound of the bucket that holds the given fraction of the durations of a phase
+     */
+    private long percentile(int p, double fraction) {
+        long rank = (long) Math.ceil(fraction * runs[p]);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += histogram[p][b];
+            if (seen >= rank) {
+                return Math.min(maxNanos[p], (2L << b) - 1);
+            }
+        }
+        return maxNanos[p];
+    }
+}
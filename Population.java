@@ -6,14 +6,62 @@ import java.util.*;
  * Main Population class
  */
 public class Population implements IPopulation {
+    // the sums are recomputed after this many updates per individual, so rounding errors do not build up
+    private static final int STATISTICS_REBUILD = 64;
     private int populationSize;
     private int offspringSize;
+    // the evaluations the offspring of the next generation may use
+    private int budget;
     private List<Individual> population;
     private List<Individual> offspring;
     private List<Individual> matingPool;
     private List<Individual> exchange;
+    // individuals that left the population and can be reused as offspring
+    private Deque<Individual> pool;
+    // individuals removed during an exchange; they may still be emigrants that another
+    // island has not copied yet, so they only join the pool when the exchange is over
+    private Deque<Individual> departed;
+    // rows of the parents and children of one recombination
+    private double[][] parentsValues;
+    private double[][] childrenValues;
+    // the genotypes and fitness of a batch that is evaluated in parallel
+    private double[][] genotypes;
+    private double[] fitness;
+    // the values of a batch that is evaluated in one call, one genotype after the other
+    private double[] batch;
+    // the fitness of the population in an array, and the winners of the tournaments
+    private double[] fitnessValues;
+    private int[] winners;
+    // samples parents from their selection probabilities
+    private SelectionSampler sampler;
+    private double[] probabilities;
+    // positions in the population used to sort it, and the individuals while they are reordered
+    private int[] order;
+    private Individual[] reordered;
+    // whether the population is sorted best first and has not changed since
+    private boolean sorted;
+    // the engine of the correlated mutation, shared by the individuals
+    private CorrelatedMutation correlated;
+    // predicts the fitness of the offspring so only the most promising are evaluated
+    private Surrogate surrogate;
+    private double[] predictions;
+    private double[] actualFitness;
+    private int[] screenOrder;
+    private Individual[] screened;
+    // the genotypes of the population in one array, and the tree to find neighbours in it
+    private double[] sharingPoints;
+    private KdTree sharingTree;
+    private int[] neighbours;
+    private double[] neighbourDistances;
+    // the sums of the values and of their squares per dimension, relative to shift,
+    // kept up to date as individuals enter and leave the population
+    private double[] shift;
+    private double[] sumValues;
+    private double[] sumSquares;
+    private int statisticsUpdates;
     private Util util;
 
+
     /**
      * Constructor with only a Random object
      *
@@ -25,14 +73,25 @@ public class Population implements IPopulation {
 
         double offspringRatio = Util.OFFSPRING_RATIO;
         offspringSize = (int) (populationSize * offspringRatio);
+        budget = Integer.MAX_VALUE;
 
         population = new ArrayList<>();
         offspring = new ArrayList<>();
         matingPool = new ArrayList<>();
+        pool = new ArrayDeque<>();
+        departed = new ArrayDeque<>();
+        parentsValues = new double[Util.N_PARENTS][];
+        childrenValues = new double[Util.N_PARENTS][];
+        sampler = new SelectionSampler(populationSize);
+        correlated = new CorrelatedMutation(util);
 
         for (int i = 0; i < populationSize; i++) {
             population.add(new Individual(rnd_, util));
         }
+        shift = new double[Util.DIMENSION];
+        sumValues = new double[Util.DIMENSION];
+        sumSquares = new double[Util.DIMENSION];
+        rebuildStatistics();
     }
 
     /* *******************
@@ -40,24 +99,187 @@ public class Population implements IPopulation {
      *********************/
     @Override
     public int evalInitialPopulation(ContestEvaluation eval) {
-        int evaluations = 0;
-        for (Individual individual: population) {
-            individual.setFitness((double) eval.evaluate(individual.values));
-            evaluations++;
+        sorted = false;
+        int evaluations = evaluate(eval, population);
+        if (surrogate != null) {
+            for (Individual individual: population) {
+                surrogate.add(individual.values, individual.getFitness());
+            }
         }
         return evaluations;
     }
 
     @Override
     public int evalOffspring(ContestEvaluation eval) {
+        if (!screening()) {
+            return evaluate(eval, offspring);
+        }
+        screenOffspring();
+        int evaluations = evaluate(eval, offspring);
+        int count = offspring.size();
+        for (int i = 0; i < count; i++) {
+            Individual child = offspring.get(i);
+            actualFitness[i] = child.getFitness();
+            surrogate.add(child.values, child.getFitness());
+        }
+        surrogate.recordAccuracy(predictions, actualFitness, count);
+        return evaluations;
+    }
+
+    /**
+     * Evaluates the individuals, on several threads if the
+     * evaluation allows it and more than one thread is configured.
+     *
+     * @param eval the ContestEvaluation
+     * @param individuals the individuals to evaluate
+     * @return the number of evaluations used
+     */
+    private int evaluate(ContestEvaluation eval, List<Individual> individuals) {
+        if (util.EVALUATION_THREADS > 1 && eval instanceof ThreadSafeEvaluation) {
+            return evaluateParallel(eval, individuals);
+        }
+        if (eval instanceof BatchEvaluation) {
+            return evaluateBatch((BatchEvaluation) eval, individuals);
+        }
         int evaluations = 0;
-        for (Individual individual: offspring) {
+        for (Individual individual: individuals) {
             individual.setFitness((double) eval.evaluate(individual.values));
             evaluations++;
         }
         return evaluations;
     }
 
+    private int evaluateParallel(ContestEvaluation eval, List<Individual> individuals) {
+        int count = individuals.size();
+        if (genotypes == null || genotypes.length < count) {
+            genotypes = new double[count][];
+            fitness = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            genotypes[i] = individuals.get(i).values;
+        }
+        try {
+            return ParallelEvaluator.get(util.EVALUATION_THREADS)
+                    .evaluate(eval, genotypes, fitness, 0, count);
+        }
+        finally {
+            // also keep the fitness of the individuals evaluated before the limit
+            for (int i = 0; i < count; i++) {
+                individuals.get(i).setFitness(fitness[i]);
+                fitness[i] = 0.0;
+            }
+        }
+    }
+
+    /**
+     * Evaluates the individuals in one call, after copying their values
+     * into one flat array. Like the sequential evaluation it throws a
+     * NullPointerException when the evaluation limit is reached, after
+     * setting the fitness of the individuals that were evaluated.
+     */
+    private int evaluateBatch(BatchEvaluation eval, List<Individual> individuals) {
+        int count = individuals.size();
+        if (batch == null || batch.length < count * Util.DIMENSION) {
+            batch = new double[count * Util.DIMENSION];
+        }
+        if (fitness == null || fitness.length < count) {
+            fitness = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(individuals.get(i).values, 0, batch, i * Util.DIMENSION, Util.DIMENSION);
+        }
+        int evaluations = eval.evaluate(batch, 0, count, fitness);
+        for (int i = 0; i < evaluations; i++) {
+            individuals.get(i).setFitness(fitness[i]);
+        }
+        if (evaluations < count) {
+            throw new NullPointerException("Evaluation limit reached");
+        }
+        return evaluations;
+    }
+
+    @Override
+    public void setEvaluationBudget(int evaluations) {
+        budget = Math.max(0, evaluations);
+    }
+
+    /* *******************
+     * SURROGATE
+     *********************/
+
+    /**
+     * Lets the surrogate pre-screen the offspring. The population then
+     * creates Surrogate.OVERSAMPLING times more offspring than it evaluates.
+     *
+     * @param surrogate the surrogate, or null to evaluate every child
+     */
+    void setSurrogate(Surrogate surrogate) {
+        this.surrogate = surrogate;
+    }
+
+    /**
+     * Deterministic crowding pairs every child with its parent, so its
+     * offspring are never screened.
+     *
+     * @return whether the offspring are pre-screened
+     */
+    private boolean screening() {
+        return surrogate != null && !util.DETERMINISTIC_CROWDING;
+    }
+
+    /**
+     * @return the number of children that are created every generation
+     */
+    private int candidateCount() {
+        int count = screening() ? offspringCount() * Surrogate.OVERSAMPLING : offspringCount();
+        // the children are created in pairs
+        return (count + Util.N_PARENTS - 1) / Util.N_PARENTS * Util.N_PARENTS;
+    }
+
+    /**
+     * @return the number of children that are evaluated every generation
+     */
+    private int offspringCount() {
+        return Math.min(offspringSize, budget);
+    }
+
+    /**
+     * Keeps the offspringCount() children with the highest predicted fitness
+     * as the offspring, with their predictions in the same order in
+     * predictions. The others are returned to the pool.
+     */
+    private void screenOffspring() {
+        int count = offspring.size();
+        if (predictions == null || predictions.length < count) {
+            predictions = new double[count];
+            actualFitness = new double[count];
+            screenOrder = new int[count];
+            screened = new Individual[count];
+        }
+        for (int i = 0; i < count; i++) {
+            predictions[i] = surrogate.predict(offspring.get(i).values);
+            screenOrder[i] = i;
+        }
+        int kept = Math.min(offspringCount(), count);
+        PartialSort.selectBest(predictions, screenOrder, count, kept);
+        for (int i = 0; i < count; i++) {
+            screened[i] = offspring.get(screenOrder[i]);
+        }
+        offspring.clear();
+        for (int i = 0; i < count; i++) {
+            if (i < kept) {
+                offspring.add(screened[i]);
+                // kept predictions move to the front, in the order of the offspring
+                actualFitness[i] = predictions[screenOrder[i]];
+            }
+            else if (util.OFFSPRING_POOL) {
+                pool.push(screened[i]);
+            }
+            screened[i] = null;
+        }
+        System.arraycopy(actualFitness, 0, predictions, 0, kept);
+    }
+
     /* *******************
      * PARENT SELECTION
      *********************/
@@ -84,18 +306,21 @@ public class Population implements IPopulation {
                     rankingSelectionExponential();
                     break;
             }
-            sampleParentSUS(rnd_);
+            sampleParents(rnd_);
         }
     }
 
     private void tournamentSelection(Random rnd_) {
-        while (matingPool.size() < offspringSize) {
-            List<Individual> tournament = new ArrayList<>();
-            for (int i = 0; i < Util.TOURNAMENT_K; i++) {
-                tournament.add(population.get(rnd_.nextInt(populationSize)));
-            }
-            tournament.sort(Comparator.comparingDouble(Individual::getFitness).reversed());
-            matingPool.add(tournament.get(0));
+        int count = candidateCount() - matingPool.size();
+        if (count <= 0) {
+            return;
+        }
+        if (winners == null || winners.length < count) {
+            winners = new int[count];
+        }
+        Tournament.select(getFitnessValues(), populationSize, Util.TOURNAMENT_K, winners, count, rnd_);
+        for (int i = 0; i < count; i++) {
+            matingPool.add(population.get(winners[i]));
         }
     }
 
@@ -158,43 +383,42 @@ public class Population implements IPopulation {
     }
 
     /**
-     * Roulette wheel sampling
+     * Samples the mating pool from the selection probabilities of the
+     * population, with the sampling method set in util.
      */
-    private void sampleParentRoulette(Random rnd_) {
-        List<Double> cumulativeProb = getCumulativeProb();
-         while (matingPool.size() < offspringSize) {
-             int i = 0;
-             double r = rnd_.nextDouble();
-             while (cumulativeProb.get(i) < r) {
-                 i++;
-             }
-             matingPool.add(population.get(i));
+    private void sampleParents(Random rnd_) {
+        int count = candidateCount() - matingPool.size();
+        if (count <= 0) {
+            return;
         }
-    }
-
-    /**
-     * Stochastic Universal Sampling
-     */
-    private void sampleParentSUS(Random rnd_) {
-        List<Double> cumulativeProb = getCumulativeProb();
-        double r = rnd_.nextDouble() / (double) offspringSize;
-        int i = 0;
-        while (matingPool.size() < offspringSize) {
-            while (r <= cumulativeProb.get(i)) {
-                matingPool.add(population.get(i));
-                r += 1 / (double) offspringSize;
-            }
-            i++;
+        if (winners == null || winners.length < count) {
+            winners = new int[count];
         }
-    }
-
-    private List<Double> getCumulativeProb() {
-        List<Double> cumulativeProb = new ArrayList<>();
-        cumulativeProb.add(population.get(0).getSelectionProbability());
-        for (int i = 1; i < populationSize; i++) {
-            cumulativeProb.add(cumulativeProb.get(i - 1) + population.get(i).getSelectionProbability());
+        if (probabilities == null || probabilities.length < populationSize) {
+            probabilities = new double[populationSize];
+        }
+        for (int i = 0; i < populationSize; i++) {
+            probabilities[i] = population.get(i).getSelectionProbability();
+        }
+        sampler.setProbabilities(probabilities, populationSize);
+        switch (util.sampling) {
+            case SUS:
+                sampler.sampleSUS(rnd_, winners, count);
+                break;
+            case ROULETTE:
+                for (int i = 0; i < count; i++) {
+                    winners[i] = sampler.sampleRoulette(rnd_);
+                }
+                break;
+            case ALIAS:
+                for (int i = 0; i < count; i++) {
+                    winners[i] = sampler.sampleAlias(rnd_);
+                }
+                break;
+        }
+        for (int i = 0; i < count; i++) {
+            matingPool.add(population.get(winners[i]));
         }
-        return cumulativeProb;
     }
 
     /* ****************************
@@ -208,44 +432,90 @@ public class Population implements IPopulation {
             return;
         }
 
-        double[][] parentsValues = new double[Util.N_PARENTS][Util.DIMENSION];
-        double[][] childrenValues;
-
         offspring.clear();
-        for (int i = 0; i < offspringSize; i += Util.N_PARENTS) {
+        // when the budget cuts the generation short, the fittest parents are paired first
+        boolean budgeted = offspringCount() < offspringSize && !screening();
+        if (budgeted) {
+            matingPool.sort(Comparator.comparingDouble(Individual::getFitness).reversed());
+        }
+        for (int i = 0; i < candidateCount(); i += Util.N_PARENTS) {
             for (int j = 0; j < Util.N_PARENTS; j++) {
-                int index = rnd_.nextInt(matingPool.size());
+                int index = budgeted ? 0 : rnd_.nextInt(matingPool.size());
                 parentsValues[j] = matingPool.get(index).values;
                 matingPool.remove(index);
             }
+            createChildren(rnd_, parentsValues);
+        }
+        dropUnevaluatedChildren();
+    }
 
-            try {
-                childrenValues = chooseRecombination(rnd_, parentsValues);
-            }
-            catch (NullPointerException e) {
-                throw new NullPointerException("Invalid recombination");
+    /**
+     * Removes the children the budget cannot evaluate, which is the second
+     * child of the last pair when the budget is odd. Screened offspring are
+     * cut down to the budget by screenOffspring instead.
+     */
+    private void dropUnevaluatedChildren() {
+        if (screening()) {
+            return;
+        }
+        while (offspring.size() > offspringCount()) {
+            Individual child = offspring.remove(offspring.size() - 1);
+            if (util.OFFSPRING_POOL) {
+                pool.push(child);
             }
+        }
+    }
 
+    /**
+     * Recombines the parents and adds the children to the offspring.
+     * In pooled mode the children are taken from the pool and
+     * written in place, otherwise new individuals are created.
+     *
+     * @param rnd_ the random generator
+     * @param parentsValues the values of the parents
+     */
+    private void createChildren(Random rnd_, double[][] parentsValues) {
+        if (util.OFFSPRING_POOL) {
             for (int j = 0; j < Util.N_PARENTS; j++) {
-                if (childrenValues != null) {
-                    offspring.add(new Individual(childrenValues[j], util));
-                }
+                Individual child = takeFromPool();
+                childrenValues[j] = child.values;
+                offspring.add(child);
+            }
+            chooseRecombination(util.recombination, rnd_, parentsValues, childrenValues);
+        }
+        else {
+            double[][] values = new double[Util.N_PARENTS][Util.DIMENSION];
+            chooseRecombination(util.recombination, rnd_, parentsValues, values);
+            for (int j = 0; j < Util.N_PARENTS; j++) {
+                offspring.add(new Individual(values[j], util));
             }
         }
     }
 
-    private double[][] chooseRecombination(Random rnd_, double[][] parentsValues) {
-        switch (util.recombination) {
+    /**
+     * Recombines two parents into two children with the given recombination.
+     * Also used by the other populations that work on Individual objects.
+     *
+     * @param recombination the recombination to use
+     * @param rnd_ the random generator
+     * @param parentsValues the values of the parents
+     * @param childrenValues the arrays the values of the children are written to
+     */
+    static void chooseRecombination(Util.Recombination recombination, Random rnd_,
+                                    double[][] parentsValues, double[][] childrenValues) {
+        switch (recombination) {
             case SIMPLE_ARITHMETIC:
-                return singleArithmeticRecombination(rnd_, parentsValues);
+                singleArithmeticRecombination(rnd_, parentsValues, childrenValues);
+                break;
             case SINGLE_ARITHMETIC:
-                return simpleArithmeticRecombination(rnd_, parentsValues);
+                simpleArithmeticRecombination(rnd_, parentsValues, childrenValues);
+                break;
             case WHOLE_ARITHMETIC:
-                return wholeArithmeticRecombination(rnd_, parentsValues);
+                wholeArithmeticRecombination(rnd_, parentsValues, childrenValues);
+                break;
             case BLEND:
-                return blendRecombination(rnd_, parentsValues);
-            default:
-                return null;
+                blendRecombination(rnd_, parentsValues, childrenValues);
+                break;
         }
     }
 
@@ -254,10 +524,9 @@ public class Population implements IPopulation {
      *
      * @param rnd_ the random generator
      * @param parentsValues the values of the parents
-     * @return the values of the children
+     * @param childrenValues the arrays the values of the children are written to
      */
-    private double[][] simpleArithmeticRecombination(Random rnd_, double[][] parentsValues) {
-        double[][] childrenValues = new double[Util.N_PARENTS][Util.DIMENSION];
+    private static void simpleArithmeticRecombination(Random rnd_, double[][] parentsValues, double[][] childrenValues) {
         int k = rnd_.nextInt(Util.DIMENSION);
         for (int i = 0; i < k; i++) {
             childrenValues[0][i] = parentsValues[0][i];
@@ -267,7 +536,6 @@ public class Population implements IPopulation {
             childrenValues[0][i] = 0.5 * (parentsValues[0][i] + parentsValues[1][i]);
             childrenValues[1][i] = 0.5 * (parentsValues[0][i] + parentsValues[1][i]);
         }
-        return childrenValues;
     }
 
     /**
@@ -275,10 +543,9 @@ public class Population implements IPopulation {
      *
      * @param rnd_ the random generator
      * @param parentsValues the values of the parents
-     * @return the values of the children
+     * @param childrenValues the arrays the values of the children are written to
      */
-    private double[][] singleArithmeticRecombination(Random rnd_, double[][] parentsValues) {
-        double[][] childrenValues = new double[Util.N_PARENTS][Util.DIMENSION];
+    private static void singleArithmeticRecombination(Random rnd_, double[][] parentsValues, double[][] childrenValues) {
         int k = rnd_.nextInt(Util.DIMENSION);
         for (int i = 0; i < Util.DIMENSION; i++) {
             childrenValues[0][i] = parentsValues[0][i];
@@ -286,7 +553,6 @@ public class Population implements IPopulation {
         }
         childrenValues[0][k] = 0.5 * (parentsValues[0][k] + parentsValues[1][k]);
         childrenValues[1][k] = 0.5 * (parentsValues[0][k] + parentsValues[1][k]);
-        return childrenValues;
     }
 
     /**
@@ -294,16 +560,14 @@ public class Population implements IPopulation {
      *
      * @param rnd_ the random generator
      * @param parentsValues the values of the parents
-     * @return the values of the children
+     * @param childrenValues the arrays the values of the children are written to
      */
-    private double[][] wholeArithmeticRecombination(Random rnd_, double[][] parentsValues) {
-        double[][] childrenValues = new double[Util.N_PARENTS][Util.DIMENSION];
+    private static void wholeArithmeticRecombination(Random rnd_, double[][] parentsValues, double[][] childrenValues) {
         double alpha = rnd_.nextDouble();
         for (int i = 0; i < Util.DIMENSION; i++) {
             childrenValues[0][i] = alpha * parentsValues[0][i] + (1 - alpha) * parentsValues[1][i];
             childrenValues[1][i] = alpha * parentsValues[1][i] + (1 - alpha) * parentsValues[0][i];
         }
-        return childrenValues;
     }
 
     /**
@@ -311,10 +575,9 @@ public class Population implements IPopulation {
      *
      * @param rnd_ the random generator
      * @param parentsValues the values of the parents
-     * @return the values of the children
+     * @param childrenValues the arrays the values of the children are written to
      */
-    private double[][] blendRecombination(Random rnd_, double[][] parentsValues) {
-        double[][] childrenValues = new double[Util.N_PARENTS][Util.DIMENSION];
+    private static void blendRecombination(Random rnd_, double[][] parentsValues, double[][] childrenValues) {
         double alpha = 0.5;
         for (int i = 0; i < Util.DIMENSION; i++) {
             double u = rnd_.nextDouble();
@@ -322,7 +585,6 @@ public class Population implements IPopulation {
             childrenValues[0][i] = (1 - gamma) * parentsValues[0][i] + (gamma * parentsValues[1][i]);
             childrenValues[1][i] = (1 - gamma) * parentsValues[1][i] + (gamma * parentsValues[0][i]);
         }
-        return childrenValues;
     }
 
     /* ****************************
@@ -331,7 +593,7 @@ public class Population implements IPopulation {
     public void mutate(Random rnd_, double epsilon)
     {
         for (Individual child: offspring) {
-            child.mutate(util.mutation, rnd_, epsilon);
+            child.mutate(util.mutation, rnd_, epsilon, correlated);
         }
     }
 
@@ -351,24 +613,48 @@ public class Population implements IPopulation {
             case TOURNAMENT:
                 break;
         }
+        if (statisticsUpdates > STATISTICS_REBUILD * populationSize) {
+            rebuildStatistics();
+        }
     }
 
     /**
-     * Replaces all parents with the children.
+     * Replaces all parents with the children. When the budget left fewer
+     * children than parents, the best parents take the places of the missing children.
      */
     private void generational() {
-        population.clear();
-        population.addAll(offspring);
+        int kept = Math.max(0, populationSize - offspring.size());
+        if (kept > 0) {
+            sortPopulationReverse();
+        }
+        if (util.OFFSPRING_POOL) {
+            for (int i = kept; i < population.size(); i++) {
+                pool.push(population.get(i));
+            }
+        }
+        population.subList(kept, population.size()).clear();
+        for (Individual child: offspring) {
+            population.add(child);
+        }
         offspring.clear();
+        sorted = false;
+        rebuildStatistics();
     }
 
     /**
      * Merges parents with children and keeps the best @{populationSize}.
+     * Only the survivors are found (quickselect), they are not sorted.
      */
     private void muPlusLambda() {
-        population.addAll(offspring);
-        sortPopulationReverse();
-        population.subList(populationSize, populationSize + offspringSize).clear();
+        for (Individual child: offspring) {
+            population.add(child);
+            addStatistics(child);
+        }
+        int n = population.size();
+        PartialSort.selectBest(getFitnessValues(), getOrder(n), n, populationSize);
+        reorderPopulation(order, n);
+        truncatePopulation(populationSize);
+        sorted = false;
     }
 
     /* ****************************
@@ -377,15 +663,35 @@ public class Population implements IPopulation {
 
     /**
      * Applies fitness sharing to the entire population.
+     * Only the individuals within SIGMA_SHARE contribute to the sum,
+     * so they are looked up in a k-d tree instead of comparing all pairs.
      */
     private void fitnessSharing() {
+        int dimension = Util.DIMENSION;
+        if (sharingTree == null) {
+            sharingTree = new KdTree();
+        }
+        if (sharingPoints == null || sharingPoints.length < populationSize * dimension) {
+            sharingPoints = new double[populationSize * dimension];
+            neighbours = new int[populationSize];
+            neighbourDistances = new double[populationSize];
+        }
+        for (int i = 0; i < populationSize; i++) {
+            System.arraycopy(population.get(i).values, 0, sharingPoints, i * dimension, dimension);
+        }
+        sharingTree.build(sharingPoints, populationSize, dimension);
+
+        double radiusSquared = Util.SIGMA_SHARE * Util.SIGMA_SHARE;
         for (int i = 0; i < populationSize; i++) {
+            int count = sharingTree.neighbours(sharingPoints, i * dimension, radiusSquared,
+                    neighbours, neighbourDistances);
             double sum = 0.0;
-            for (int j = 0; j < populationSize; j++) {
-                sum += sh(distance(population.get(i), population.get(j)));
+            for (int j = 0; j < count; j++) {
+                sum += sh(Math.sqrt(neighbourDistances[j]));
             }
             population.get(i).setFitness(population.get(i).getFitness() / sum);
         }
+        sorted = false;
     }
 
     /**
@@ -411,27 +717,15 @@ public class Population implements IPopulation {
      * Applies deterministic crowding to the population
      */
     private void deterministicCrowding(Random rnd_) {
-        double[][] parentsValues = new double[Util.N_PARENTS][Util.DIMENSION];
-        double[][] childrenValues;
-
+        offspring.clear();
         Collections.shuffle(matingPool);
-        for (int i = 0; i < populationSize; i += Util.N_PARENTS) {
+        int count = Math.min(populationSize, candidateCount());
+        for (int i = 0; i < count; i += Util.N_PARENTS) {
             parentsValues[0] = matingPool.get(i).values;
             parentsValues[1] = matingPool.get(i + 1).values;
-
-            try {
-                childrenValues = chooseRecombination(rnd_, parentsValues);
-            }
-            catch (NullPointerException e) {
-                throw new NullPointerException("Invalid recombination");
-            }
-
-            for (int j = 0; j < Util.N_PARENTS; j++) {
-                if (childrenValues != null) {
-                    offspring.add(new Individual(childrenValues[j], util));
-                }
-            }
+            createChildren(rnd_, parentsValues);
         }
+        dropUnevaluatedChildren();
     }
 
     /* ****************************
@@ -490,13 +784,57 @@ public class Population implements IPopulation {
         return toExchange;
     }
 
+    /**
+     * Returns copies of {@param n} individuals to be exchanged, for an
+     * island that takes them in on another thread.
+     *
+     * @param n the number of individuals to be exchanged
+     * @return the copies
+     */
+    List<Individual> copyExchange(int n) {
+        List<Individual> copies = new ArrayList<>();
+        for (Individual individual: getExchange(n)) {
+            Individual copy = new Individual(util);
+            copy.copyFrom(individual);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
     /**
      * Adds the list of individuals to the population.
      *
      * @param toAdd list of individuals
      */
     void addToPopulation(List<Individual> toAdd) {
-        population.addAll(toAdd);
+        if (util.OFFSPRING_POOL || util.PARALLEL_ISLANDS) {
+            // immigrants are still referenced by their own island, which may
+            // recycle them or update them from another thread, so a copy is added
+            for (Individual immigrant: toAdd) {
+                Individual copy = takeFromPool();
+                copy.copyFrom(immigrant);
+                population.add(copy);
+                addStatistics(copy);
+            }
+        }
+        else {
+            population.addAll(toAdd);
+            for (Individual immigrant: toAdd) {
+                addStatistics(immigrant);
+            }
+        }
+        sorted = false;
+    }
+
+    /**
+     * Ends an exchange: the individuals removed during it can be reused now
+     * that every island has taken in its immigrants.
+     */
+    void finishExchange() {
+        while (!departed.isEmpty()) {
+            pool.push(departed.pop());
+        }
+        exchange = null;
     }
 
     /**
@@ -507,7 +845,7 @@ public class Population implements IPopulation {
     void removeWorst(int n)
     {
         sortPopulationReverse();
-        population.subList(populationSize - n, populationSize).clear();
+        truncatePopulation(populationSize - n);
     }
 
     /**
@@ -518,7 +856,8 @@ public class Population implements IPopulation {
     void removeRandom(int n)
     {
         Collections.shuffle(population);
-        population.subList(populationSize - n, populationSize).clear();
+        truncatePopulation(populationSize - n);
+        sorted = false;
     }
 
 
@@ -527,18 +866,96 @@ public class Population implements IPopulation {
      ******************************/
 
     /**
-     * Calculates the distance between two individuals. (Euclidian)
+     * Removes the individuals at the end of the population until
+     * {@param size} are left. In pooled mode they are kept for reuse.
+     *
+     * @param size the new size of the population
+     */
+    private void truncatePopulation(int size) {
+        for (int i = population.size() - 1; i >= size; i--) {
+            Individual removed = population.remove(i);
+            removeStatistics(removed);
+            if (util.OFFSPRING_POOL && exchange != null) {
+                departed.push(removed);
+            }
+            else if (util.OFFSPRING_POOL) {
+                pool.push(removed);
+            }
+        }
+    }
+
+    /**
+     * Adds the values of an individual that joins the population to the sums.
+     */
+    private void addStatistics(Individual individual) {
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            double d = individual.values[i] - shift[i];
+            sumValues[i] += d;
+            sumSquares[i] += d * d;
+        }
+        statisticsUpdates++;
+    }
+
+    /**
+     * Subtracts the values of an individual that leaves the population from the sums.
+     */
+    private void removeStatistics(Individual individual) {
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            double d = individual.values[i] - shift[i];
+            sumValues[i] -= d;
+            sumSquares[i] -= d * d;
+        }
+        statisticsUpdates++;
+    }
+
+    /**
+     * Recomputes the sums from the population, relative to its current
+     * mean, which keeps the sums of squares small when the population
+     * has converged.
+     */
+    private void rebuildStatistics() {
+        int n = population.size();
+        if (n > 0) {
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                shift[i] += sumValues[i] / n;
+            }
+        }
+        Arrays.fill(sumValues, 0.0);
+        Arrays.fill(sumSquares, 0.0);
+        for (Individual individual: population) {
+            addStatistics(individual);
+        }
+        statisticsUpdates = 0;
+    }
+
+    /**
+     * Takes an individual from the pool, or creates one if the pool is empty.
+     *
+     * @return an individual with reset strategy parameters
+     */
+    private Individual takeFromPool() {
+        Individual individual = pool.poll();
+        if (individual == null) {
+            individual = new Individual(util);
+        }
+        individual.reset();
+        return individual;
+    }
+
+    /**
+     * Copies the fitness of the population into an array.
      *
-     * @param a first individual
-     * @param b second individual
-     * @return distance between a and b
+     * @return the fitness of every individual, in the order of the population
      */
-    private double distance(Individual a, Individual b) {
-        double distance = 0.0;
-        for (int i = 0; i < a.values.length; i++) {
-            distance += Math.pow(a.values[i] - b.values[i], 2);
+    private double[] getFitnessValues() {
+        int n = population.size();
+        if (fitnessValues == null || fitnessValues.length < n) {
+            fitnessValues = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            fitnessValues[i] = population.get(i).getFitness();
         }
-        return Math.sqrt(distance);
+        return fitnessValues;
     }
 
     /**
@@ -549,10 +966,52 @@ public class Population implements IPopulation {
     }
 
     /**
-     * Sorts the population and reverses it.
+     * Sorts the population and reverses it. Nothing is done when the
+     * population has not changed since it was last sorted.
      */
     private void sortPopulationReverse() {
-        population.sort(Comparator.comparingDouble(Individual::getFitness).reversed());
+        if (sorted) {
+            return;
+        }
+        int n = population.size();
+        PartialSort.sortDescending(getFitnessValues(), getOrder(n), 0, n - 1);
+        reorderPopulation(order, n);
+        sorted = true;
+    }
+
+    /**
+     * Returns the positions 0 .. n - 1 in an array that is reused.
+     *
+     * @param n the number of positions
+     * @return the positions
+     */
+    private int[] getOrder(int n) {
+        if (order == null || order.length < n) {
+            order = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Puts the individuals of the population in the given order.
+     *
+     * @param order the old positions in their new order
+     * @param n the size of the population
+     */
+    private void reorderPopulation(int[] order, int n) {
+        if (reordered == null || reordered.length < n) {
+            reordered = new Individual[n];
+        }
+        for (int i = 0; i < n; i++) {
+            reordered[i] = population.get(order[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            population.set(i, reordered[i]);
+            reordered[i] = null;
+        }
     }
 
     public void printFitness()
@@ -573,33 +1032,65 @@ public class Population implements IPopulation {
     }
 
     /**
-     * Computes the sum of the allele-values of all of the individuals in the population.
+     * Computes the sum of the allele-values of all of the individuals in the population,
+     * from the running sums in O(DIMENSION).
      */
     public double[] getSumValues()
     {
-        double[] sumValues = new double[Util.DIMENSION];
-        for (Individual ind: population) {
-            for (int i = 0; i < Util.DIMENSION; i++) {
-                sumValues[i] += ind.values[i];
-            }
+        int n = population.size();
+        double[] sum = new double[Util.DIMENSION];
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            sum[i] = n * shift[i] + sumValues[i];
         }
-        return sumValues;
+        return sum;
     }
 
     /**
-     * Computes population diversity measure due to Morrison & de Jong (2001).
+     * Computes population diversity measure due to Morrison & de Jong (2001),
+     * from the running sums in O(DIMENSION): with y = x - shift and
+     * c = meanValues - shift, the sum of (x - meanValues)^2 is
+     * sum(y^2) - 2 c sum(y) + n c^2.
      */
     public double[] getDiversity(double[] meanValues)
     {
+        int n = population.size();
         double[] diversity = new double[Util.DIMENSION];
-        for (Individual ind: population) {
-            for (int i = 0; i < Util.DIMENSION; i++) {
-                diversity[i] += Math.pow(ind.values[i] - meanValues[i], 2);
-            }
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            double c = meanValues[i] - shift[i];
+            diversity[i] = Math.max(0.0, sumSquares[i] - 2 * c * sumValues[i] + n * c * c);
         }
         return diversity;
     }
 
+    @Override
+    public double getBestFitness() {
+        if (sorted) {
+            return population.get(0).getFitness();
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (Individual individual: population) {
+            best = Math.max(best, individual.getFitness());
+        }
+        return best;
+    }
+
+    @Override
+    public void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations) {
+        int size = population.size();
+        double best = Double.NEGATIVE_INFINITY;
+        double worst = Double.POSITIVE_INFINITY;
+        double sum = 0.0;
+        double sumSigma = 0.0;
+        for (Individual individual: population) {
+            best = Math.max(best, individual.getFitness());
+            worst = Math.min(worst, individual.getFitness());
+            sum += individual.getFitness();
+            sumSigma += individual.getMeanSigma();
+        }
+        telemetry.append(generation, island, evaluations, best, sum / size, worst,
+                Util.meanDiversity(this, size), sumSigma / size);
+    }
+
     @Override
     public void makeExchange(Random rnd_) {
         throw new UnsupportedOperationException();
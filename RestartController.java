@@ -0,0 +1,144 @@
+import java.util.Random;
+
+/**
+ * Decides when a run has stagnated and with which population size the
+ * next run starts. A run stagnates when its best fitness has not improved
+ * for STAGNATION_GENERATIONS generations, or when the mean squared distance
+ * of the individuals to their centroid (the diversity of Morrison & de Jong
+ * per individual) drops below MIN_DIVERSITY.
+ *
+ * IPOP doubles the population size at every restart. BIPOP (Hansen, 2009)
+ * has a large regime, whose size doubles every time it is used, and a small
+ * regime with a random size between the first size and half the current
+ * large size. Every restart uses the regime that has spent fewer
+ * evaluations so far; the first run counts as a large one.
+ */
+class RestartController {
+    // generations without improvement after which a run is stagnated
+    private static final int STAGNATION_GENERATIONS = 100;
+    // the relative improvement of the best fitness that counts as progress
+    private static final double MIN_IMPROVEMENT = 1e-9;
+    // the diversity below which the population has converged
+    private static final double MIN_DIVERSITY = 1e-12;
+    // the diversity is only computed every so many generations
+    private static final int DIVERSITY_INTERVAL = 10;
+
+    private final Util.Restart strategy;
+    private final int initialSize;
+    // the population sizes are kept a multiple of this
+    private final int granularity;
+    // BIPOP: the number of large restarts and the evaluations spent in each regime
+    private int largeRestarts;
+    private long largeEvaluations;
+    private long smallEvaluations;
+    private boolean largeRun;
+    // the history of the current run
+    private double bestFitness;
+    private int generations;
+    private int generationsWithoutImprovement;
+
+    /**
+     * @param strategy the restart strategy
+     * @param initialSize the population size of the first run
+     * @param granularity the population sizes are rounded to a multiple of this
+     */
+    RestartController(Util.Restart strategy, int initialSize, int granularity) {
+        this.strategy = strategy;
+        this.initialSize = initialSize;
+        this.granularity = granularity;
+        this.largeRun = true;
+        startRun();
+    }
+
+    /**
+     * Records a generation of the current run.
+     *
+     * @param population the population after survivor selection
+     * @param size the number of individuals in the population
+     * @return whether the run has stagnated and should be restarted
+     */
+    boolean stagnated(IPopulation population, int size) {
+        if (strategy == Util.Restart.NONE) {
+            return false;
+        }
+        generations++;
+        double best = population.getBestFitness();
+        if (best > bestFitness + MIN_IMPROVEMENT * Math.max(1.0, Math.abs(bestFitness))) {
+            generationsWithoutImprovement = 0;
+        }
+        else {
+            generationsWithoutImprovement++;
+        }
+        bestFitness = Math.max(bestFitness, best);
+        if (generationsWithoutImprovement >= STAGNATION_GENERATIONS) {
+            return true;
+        }
+        return generations % DIVERSITY_INTERVAL == 0 && Util.meanDiversity(population, size) < MIN_DIVERSITY;
+    }
+
+    /**
+     * Ends the current run and chooses the population size of the next one.
+     *
+     * @param rnd_ Random object to be used
+     * @param evaluations the number of evaluations the run used
+     * @return the population size of the next run
+     */
+    int nextPopulationSize(Random rnd_, int evaluations) {
+        if (largeRun) {
+            largeEvaluations += evaluations;
+        }
+        else {
+            smallEvaluations += evaluations;
+        }
+        startRun();
+
+        double size;
+        switch (strategy) {
+            case IPOP:
+                largeRestarts++;
+                size = initialSize * Math.pow(2, largeRestarts);
+                break;
+            case BIPOP:
+                largeRun = largeEvaluations <= smallEvaluations;
+                if (largeRun) {
+                    largeRestarts++;
+                    size = initialSize * Math.pow(2, largeRestarts);
+                }
+                else {
+                    double u = rnd_.nextDouble();
+                    size = initialSize * Math.pow(0.5 * Math.pow(2, largeRestarts), u * u);
+                }
+                break;
+            default:
+                size = initialSize;
+        }
+        return round(size);
+    }
+
+    /**
+     * Bounds the population size of the next run without ending the current
+     * one, so a restart that would not fit in the budget is never started.
+     * The small regime of BIPOP is never larger than the large one.
+     *
+     * @return the largest population size nextPopulationSize can return now
+     */
+    int largestNextPopulationSize() {
+        if (strategy == Util.Restart.NONE) {
+            return round(initialSize);
+        }
+        return round(initialSize * Math.pow(2, largeRestarts + 1));
+    }
+
+    /**
+     * @return the size rounded down to a multiple of the granularity, at least the granularity
+     */
+    private int round(double size) {
+        return Math.max(granularity, (int) (size / granularity) * granularity);
+    }
+
+    private void startRun() {
+        bestFitness = Double.NEGATIVE_INFINITY;
+        generations = 0;
+        generationsWithoutImprovement = 0;
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.Random;
+
+/**
+ * Samples indices according to their selection probabilities.
+ * The probabilities are kept as primitive prefix sums, which allows
+ * stochastic universal sampling in O(n + count), roulette wheel sampling
+ * by binary search in O(log n) per draw, and sampling from an alias table
+ * (Vose's method) in O(1) per draw after an O(n) setup.
+ * The probabilities do not have to sum exactly to 1.
+ */
+class SelectionSampler {
+    private int n;
+    // cumulative probabilities, prefix[i] = p[0] + ... + p[i]
+    private double[] prefix;
+    // alias table: index i is kept with probability aliasProb[i], otherwise alias[i] is taken
+    private double[] aliasProb;
+    private int[] alias;
+    private boolean aliasReady;
+    // work lists used to build the alias table
+    private int[] small;
+    private int[] large;
+    private double[] scaled;
+
+    SelectionSampler(int capacity) {
+        resize(capacity);
+    }
+
+    /**
+     * Sets the selection probabilities of the indices [0, n).
+     *
+     * @param probabilities the selection probability of every index
+     * @param n the number of indices
+     */
+    void setProbabilities(double[] probabilities, int n) {
+        if (n > prefix.length) {
+            resize(n);
+        }
+        this.n = n;
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += probabilities[i];
+            prefix[i] = sum;
+        }
+        aliasReady = false;
+    }
+
+    /**
+     * Stochastic Universal Sampling: writes {@param count} evenly spaced
+     * samples to out[0 .. count).
+     */
+    void sampleSUS(Random rnd_, int[] out, int count) {
+        double total = prefix[n - 1];
+        double step = total / count;
+        double r = rnd_.nextDouble() * step;
+        int i = 0;
+        for (int sampled = 0; sampled < count; sampled++) {
+            // the last index also takes what rounding leaves above its prefix sum
+            while (i < n - 1 && prefix[i] < r) {
+                i++;
+            }
+            out[sampled] = i;
+            r += step;
+        }
+    }
+
+    /**
+     * Roulette wheel sampling with a binary search over the prefix sums.
+     *
+     * @return the sampled index
+     */
+    int sampleRoulette(Random rnd_) {
+        double r = rnd_.nextDouble() * prefix[n - 1];
+        int lo = 0;
+        int hi = n - 1;
+        // find the first index whose prefix sum is at least r
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prefix[mid] < r) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Samples from the alias table, which is built on first use after
+     * the probabilities changed.
+     *
+     * @return the sampled index
+     */
+    int sampleAlias(Random rnd_) {
+        if (!aliasReady) {
+            buildAliasTable();
+        }
+        int i = rnd_.nextInt(n);
+        return rnd_.nextDouble() < aliasProb[i] ? i : alias[i];
+    }
+
+    /**
+     * Builds the alias table with Vose's method.
+     */
+    private void buildAliasTable() {
+        double total = prefix[n - 1];
+        int smallSize = 0;
+        int largeSize = 0;
+        double previous = 0.0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (prefix[i] - previous) * n / total;
+            previous = prefix[i];
+            if (scaled[i] < 1.0) {
+                small[smallSize++] = i;
+            }
+            else {
+                large[largeSize++] = i;
+            }
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            aliasProb[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallSize++] = more;
+            }
+            else {
+                large[largeSize++] = more;
+            }
+        }
+        // what is left is 1 up to rounding errors
+        while (largeSize > 0) {
+            aliasProb[large[--largeSize]] = 1.0;
+        }
+        while (smallSize > 0) {
+            aliasProb[small[--smallSize]] = 1.0;
+        }
+        aliasReady = true;
+    }
+
+    private void resize(int capacity) {
+        prefix = new double[capacity];
+        aliasProb = new double[capacity];
+        alias = new int[capacity];
+        small = new int[capacity];
+        large = new int[capacity];
+        scaled = new double[capacity];
+    }
+}
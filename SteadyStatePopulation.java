@@ -0,0 +1,237 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.Random;
+
+/**
+ * Steady-state population: every step two parents are chosen by tournament,
+ * their two children are created, mutated and evaluated, and every child
+ * that is better than the worst individual replaces it right away.
+ * The population is kept as a binary min-heap on fitness, so the worst
+ * individual is always at the root and a replacement costs O(log n),
+ * without sorting the population or rebuilding any list.
+ *
+ * One step corresponds to one generation of player16. Parents are always
+ * chosen by tournament; fitness sharing and deterministic crowding are not
+ * used in this mode.
+ */
+public class SteadyStatePopulation implements IPopulation {
+    private int populationSize;
+    // the individuals as a min-heap on fitness, and their fitness at the same positions
+    private Individual[] heap;
+    private double[] heapFitness;
+    // the children of the current step, and how many of them are evaluated
+    private Individual[] children;
+    private int childCount;
+    private double[][] parentsValues;
+    private double[][] childrenValues;
+    // the engine of the correlated mutation, shared by the children
+    private CorrelatedMutation correlated;
+    private Util util;
+
+    /**
+     * Constructor with only a Random object
+     *
+     * @param rnd_ Random class to be used
+     */
+    SteadyStatePopulation(Random rnd_, Util util, int populationSize) {
+        this.populationSize = populationSize;
+        this.util = util;
+
+        heap = new Individual[populationSize];
+        heapFitness = new double[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            heap[i] = new Individual(rnd_, util);
+        }
+        children = new Individual[Util.N_PARENTS];
+        childCount = Util.N_PARENTS;
+        parentsValues = new double[Util.N_PARENTS][];
+        childrenValues = new double[Util.N_PARENTS][];
+        for (int j = 0; j < Util.N_PARENTS; j++) {
+            children[j] = new Individual(util);
+            childrenValues[j] = children[j].values;
+        }
+        correlated = new CorrelatedMutation(util);
+    }
+
+    /* *******************
+     * EVALUATIONS
+     *********************/
+
+    @Override
+    public int evalInitialPopulation(ContestEvaluation eval) {
+        int evaluations = 0;
+        for (int i = 0; i < populationSize; i++) {
+            heapFitness[i] = (double) eval.evaluate(heap[i].values);
+            heap[i].setFitness(heapFitness[i]);
+            evaluations++;
+        }
+        for (int i = populationSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        return evaluations;
+    }
+
+    @Override
+    public int evalOffspring(ContestEvaluation eval) {
+        int evaluations = 0;
+        for (int j = 0; j < childCount; j++) {
+            children[j].setFitness((double) eval.evaluate(children[j].values));
+            evaluations++;
+        }
+        return evaluations;
+    }
+
+    /**
+     * With a single evaluation left only the first child is mutated and evaluated.
+     */
+    @Override
+    public void setEvaluationBudget(int evaluations) {
+        childCount = Math.max(0, Math.min(Util.N_PARENTS, evaluations));
+    }
+
+    /* *******************
+     * VARIATION
+     *********************/
+
+    @Override
+    public void selectParents(Random rnd_) {
+        for (int j = 0; j < Util.N_PARENTS; j++) {
+            int winner = Tournament.winner(heapFitness, populationSize, Util.TOURNAMENT_K, rnd_);
+            parentsValues[j] = heap[winner].values;
+        }
+    }
+
+    @Override
+    public void recombine(Random rnd_) {
+        for (Individual child: children) {
+            child.reset();
+        }
+        Population.chooseRecombination(util.recombination, rnd_, parentsValues, childrenValues);
+    }
+
+    @Override
+    public void mutate(Random rnd_, double epsilon) {
+        for (int j = 0; j < childCount; j++) {
+            children[j].mutate(util.mutation, rnd_, epsilon, correlated);
+        }
+    }
+
+    /* ****************************
+     * SURVIVOR SELECTION
+     ******************************/
+
+    /**
+     * Every child that is better than the worst individual replaces it.
+     */
+    @Override
+    public void selectSurvivors() {
+        for (int j = 0; j < childCount; j++) {
+            Individual child = children[j];
+            if (child.getFitness() > heapFitness[0]) {
+                heap[0].copyFrom(child);
+                heapFitness[0] = child.getFitness();
+                siftDown(0);
+            }
+        }
+    }
+
+    /**
+     * Moves the individual at position i down until both of its
+     * children in the heap are at least as fit.
+     */
+    private void siftDown(int i) {
+        Individual individual = heap[i];
+        double fitness = heapFitness[i];
+        int half = populationSize / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < populationSize && heapFitness[right] < heapFitness[child]) {
+                child = right;
+            }
+            if (heapFitness[child] >= fitness) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapFitness[i] = heapFitness[child];
+            i = child;
+        }
+        heap[i] = individual;
+        heapFitness[i] = fitness;
+    }
+
+    /* ****************************
+     * STATISTICS
+     ******************************/
+
+    @Override
+    public void printFitness() {
+        StringBuilder s = new StringBuilder();
+        s.append("[");
+        for (int i = 0; i < populationSize; i++) {
+            s.append(heapFitness[i]);
+            s.append(", ");
+            if ((i + 1) % 8 == 0) {
+                s.append("\n");
+            }
+        }
+        s.append("]\n");
+        System.out.print(s.toString());
+    }
+
+    /**
+     * Computes the sum of the allele-values of all of the individuals in the population.
+     */
+    @Override
+    public double[] getSumValues() {
+        double[] sumValues = new double[Util.DIMENSION];
+        for (Individual individual: heap) {
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                sumValues[i] += individual.values[i];
+            }
+        }
+        return sumValues;
+    }
+
+    /**
+     * Computes population diversity measure due to Morrison & de Jong (2001).
+     */
+    @Override
+    public double[] getDiversity(double[] meanValues) {
+        double[] diversity = new double[Util.DIMENSION];
+        for (Individual individual: heap) {
+            for (int i = 0; i < Util.DIMENSION; i++) {
+                double d = individual.values[i] - meanValues[i];
+                diversity[i] += d * d;
+            }
+        }
+        return diversity;
+    }
+
+    @Override
+    public double getBestFitness() {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < populationSize; i++) {
+            best = Math.max(best, heapFitness[i]);
+        }
+        return best;
+    }
+
+    @Override
+    public void recordTelemetry(Telemetry telemetry, int island, int generation, int evaluations) {
+        double sum = 0.0;
+        double sumSigma = 0.0;
+        for (int i = 0; i < populationSize; i++) {
+            sum += heapFitness[i];
+            sumSigma += heap[i].getMeanSigma();
+        }
+        // the worst individual is the root of the heap
+        telemetry.append(generation, island, evaluations, getBestFitness(), sum / populationSize, heapFitness[0],
+                Util.meanDiversity(this, populationSize), sumSigma / populationSize);
+    }
+
+    @Override
+    public void makeExchange(Random rnd_) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Predicts the fitness of genotypes that have not been evaluated yet, so a
+ * population can create more offspring than it evaluates and only spend
+ * evaluations on the most promising ones. The prediction is a
+ * k-nearest-neighbour regression over an archive of the last ARCHIVE_SIZE
+ * evaluated genotypes: the mean fitness of the K nearest, weighted by the
+ * inverse of their squared distance. The neighbours are found in a k-d tree
+ * that is rebuilt when the archive has changed.
+ *
+ * To see whether the predictions are any good, the Spearman rank
+ * correlation between the predicted and the true fitness of the offspring
+ * that were evaluated is recorded after every screening.
+ */
+class Surrogate {
+    // how many times more offspring are created than evaluated
+    static final int OVERSAMPLING = 4;
+    // the number of evaluated genotypes that are kept
+    private static final int ARCHIVE_SIZE = 500;
+    // the number of neighbours a prediction is based on
+    private static final int K = 8;
+
+    // the archive, a ring buffer of genotypes and their fitness
+    private final double[] archive;
+    private final double[] archiveFitness;
+    private int archiveCount;
+    private int next;
+    private final KdTree tree;
+    private boolean treeValid;
+    private final int[] neighbours;
+    private final double[] distances;
+    // the rank correlations recorded so far
+    private int screenings;
+    private double sumCorrelation;
+    // scratch space to rank the predicted and true fitness
+    private int[] order;
+    private int[] predictedRank;
+
+    Surrogate() {
+        archive = new double[ARCHIVE_SIZE * Util.DIMENSION];
+        archiveFitness = new double[ARCHIVE_SIZE];
+        tree = new KdTree();
+        neighbours = new int[K];
+        distances = new double[K];
+        order = new int[0];
+        predictedRank = new int[0];
+    }
+
+    /**
+     * Adds an evaluated genotype to the archive, replacing the oldest one when it is full.
+     *
+     * @param values the genotype
+     * @param fitness its fitness
+     */
+    void add(double[] values, double fitness) {
+        System.arraycopy(values, 0, archive, next * Util.DIMENSION, Util.DIMENSION);
+        archiveFitness[next] = fitness;
+        next = (next + 1) % ARCHIVE_SIZE;
+        archiveCount = Math.min(archiveCount + 1, ARCHIVE_SIZE);
+        treeValid = false;
+    }
+
+    /**
+     * Predicts the fitness of a genotype.
+     *
+     * @param values the genotype
+     * @return the predicted fitness, 0 while the archive is empty
+     */
+    double predict(double[] values) {
+        if (archiveCount == 0) {
+            return 0.0;
+        }
+        if (!treeValid) {
+            tree.build(archive, archiveCount, Util.DIMENSION);
+            treeValid = true;
+        }
+        int count = tree.nearest(values, 0, K, neighbours, distances);
+        double sumWeights = 0.0;
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            // a genotype that was evaluated before
+            if (distances[i] == 0.0) {
+                return archiveFitness[neighbours[i]];
+            }
+            double weight = 1.0 / distances[i];
+            sumWeights += weight;
+            sum += weight * archiveFitness[neighbours[i]];
+        }
+        return sum / sumWeights;
+    }
+
+    /**
+     * Records the Spearman rank correlation between the predicted and the
+     * true fitness of the evaluated offspring.
+     *
+     * @param predicted the predicted fitness
+     * @param actual the true fitness
+     * @param n the number of offspring
+     */
+    void recordAccuracy(double[] predicted, double[] actual, int n) {
+        if (n < 2) {
+            return;
+        }
+        if (order.length < n) {
+            order = new int[n];
+            predictedRank = new int[n];
+        }
+        rank(predicted, n);
+        for (int i = 0; i < n; i++) {
+            predictedRank[order[i]] = i;
+        }
+        rank(actual, n);
+        double sumSquares = 0.0;
+        for (int i = 0; i < n; i++) {
+            double d = predictedRank[order[i]] - i;
+            sumSquares += d * d;
+        }
+        sumCorrelation += 1.0 - 6.0 * sumSquares / ((double) n * ((double) n * n - 1));
+        screenings++;
+    }
+
+    /**
+     * Fills order[0 .. n) with the indices of the values, highest first.
+     */
+    private void rank(double[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        PartialSort.sortDescending(values, order, 0, n - 1);
+    }
+
+    /**
+     * @return the mean rank correlation of all screenings, 0 if there were none
+     */
+    double getMeanRankCorrelation() {
+        return screenings == 0 ? 0.0 : sumCorrelation / screenings;
+    }
+
+    /**
+     * Prints the rank accuracy of the predictions.
+     */
+    void printStatistics() {
+        System.out.println("Surrogate: " + screenings + " screenings, mean rank correlation "
+                + getMeanRankCorrelation());
+    }
+}
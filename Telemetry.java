@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary log of the statistics of every generation (and island): the
+ * best, mean and worst fitness, the diversity, the mean mutation step size
+ * and the evaluations used so far. The evolution loop only copies a record
+ * into a buffer in memory; a background thread moves the records from
+ * there into a memory-mapped file, so the loop never waits for the disk.
+ * When the buffer is full because the writer cannot keep up, records are
+ * dropped and counted instead.
+ *
+ * The file starts with a header of HEADER_BYTES (MAGIC, VERSION and
+ * RECORD_BYTES as ints), followed by records of RECORD_BYTES: the
+ * generation and island as ints, the evaluations as a long, and then the
+ * best, mean and worst fitness, the diversity and the step size as
+ * doubles, all big-endian. TelemetryReader turns it into CSV.
+ */
+class Telemetry {
+    static final int MAGIC = 0x45433136;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 56;
+    // the number of records the buffer holds
+    private static final int BUFFERED_RECORDS = 4096;
+    // the number of records that are mapped at a time
+    private static final int MAPPED_RECORDS = 65536;
+    // how often the writer looks for new records
+    private static final long WRITE_INTERVAL_MILLIS = 10;
+
+    private final FileChannel channel;
+    // the part of the file that is mapped, and where it starts
+    private MappedByteBuffer mapped;
+    private long mappedStart;
+    // the buffer the records are appended to, and the view the writer copies them with
+    private final ByteBuffer buffer;
+    private final ByteBuffer view;
+    // the number of records appended and written, guarded by this
+    private long appended;
+    private long written;
+    private long dropped;
+    private boolean closed;
+    private final Thread writer;
+
+    private Telemetry(FileChannel channel) throws IOException {
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(BUFFERED_RECORDS * RECORD_BYTES);
+        view = buffer.duplicate();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) MAPPED_RECORDS * RECORD_BYTES);
+        mapped.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+
+        writer = new Thread(this::write, "telemetry");
+        // the contest harness must be able to exit without closing the log
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Creates the log, replacing the file if it exists.
+     *
+     * @param file the name of the file
+     * @return the log, or null if the file could not be created
+     */
+    static Telemetry open(String file) {
+        try {
+            return new Telemetry(FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        }
+        catch (IOException | SecurityException e) {
+            System.err.println("No telemetry: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Appends the record of a generation, or drops it if the buffer is full.
+     *
+     * @param generation the generation
+     * @param island the island, 0 without islands
+     * @param evaluations the evaluations used so far
+     * @param best the best fitness
+     * @param mean the mean fitness
+     * @param worst the worst fitness
+     * @param diversity the mean squared distance of the individuals to their centroid
+     * @param sigma the mean mutation step size
+     */
+    synchronized void append(int generation, int island, long evaluations, double best, double mean,
+                             double worst, double diversity, double sigma) {
+        if (closed || appended - written == BUFFERED_RECORDS) {
+            dropped++;
+            return;
+        }
+        int at = (int) (appended % BUFFERED_RECORDS) * RECORD_BYTES;
+        buffer.putInt(at, generation)
+                .putInt(at + 4, island)
+                .putLong(at + 8, evaluations)
+                .putDouble(at + 16, best)
+                .putDouble(at + 24, mean)
+                .putDouble(at + 32, worst)
+                .putDouble(at + 40, diversity)
+                .putDouble(at + 48, sigma);
+        appended++;
+        // wake the writer early when the buffer fills up
+        if (appended - written == BUFFERED_RECORDS / 2) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * The writer: copies the appended records into the file until the log is closed.
+     * The records between written and appended are not touched by append,
+     * so they are copied without holding the lock.
+     */
+    private void write() {
+        try {
+            while (true) {
+                long from;
+                long to;
+                boolean last;
+                synchronized (this) {
+                    if (appended == written && !closed) {
+                        wait(WRITE_INTERVAL_MILLIS);
+                    }
+                    from = written;
+                    to = appended;
+                    last = closed;
+                }
+                for (long record = from; record < to; record++) {
+                    if (mapped.remaining() < RECORD_BYTES) {
+                        mappedStart += mapped.position();
+                        mapped = channel.map(FileChannel.MapMode.READ_WRITE, mappedStart,
+                                (long) MAPPED_RECORDS * RECORD_BYTES);
+                    }
+                    int at = (int) (record % BUFFERED_RECORDS) * RECORD_BYTES;
+                    view.limit(at + RECORD_BYTES).position(at);
+                    mapped.put(view);
+                }
+                synchronized (this) {
+                    written = to;
+                }
+                if (last && to == appended) {
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            System.err.println("Telemetry stopped: " + e);
+        }
+    }
+
+    /**
+     * Writes the remaining records and cuts the file to its length.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+            mapped.force();
+            channel.truncate(mappedStart + mapped.position());
+            channel.close();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            System.err.println("Telemetry not closed: " + e);
+        }
+        if (dropped > 0) {
+            System.out.println("Telemetry: " + dropped + " records dropped");
+        }
+    }
+}
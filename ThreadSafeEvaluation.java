@@ -0,0 +1,8 @@
+import org.vu.contest.ContestEvaluation;
+
+/**
+ * Marks a ContestEvaluation that can be called from several threads at once.
+ * The populations only evaluate in parallel when the evaluation implements this.
+ */
+interface ThreadSafeEvaluation extends ContestEvaluation {
+}
@@ -0,0 +1,49 @@
+import java.util.Random;
+
+/**
+ * Tournament selection on an array of fitness values.
+ * Contestants are drawn with replacement and the winner is tracked while
+ * drawing, so a tournament needs k random numbers and no allocation or sort.
+ * Ties go to the contestant drawn first.
+ */
+class Tournament {
+
+    /**
+     * Holds one tournament among the indices [0, n).
+     *
+     * @param fitness the fitness of every index
+     * @param n the number of indices that can take part
+     * @param k the tournament size
+     * @param rnd_ the random generator
+     * @return the index of the winner
+     */
+    static int winner(double[] fitness, int n, int k, Random rnd_) {
+        int winner = rnd_.nextInt(n);
+        double best = fitness[winner];
+        for (int i = 1; i < k; i++) {
+            int contender = rnd_.nextInt(n);
+            if (fitness[contender] > best) {
+                winner = contender;
+                best = fitness[contender];
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Holds {@param count} tournaments among the indices [0, n) and writes
+     * the winners to winners[0 .. count).
+     *
+     * @param fitness the fitness of every index
+     * @param n the number of indices that can take part
+     * @param k the tournament size
+     * @param winners the array the winners are written to
+     * @param count the number of tournaments
+     * @param rnd_ the random generator
+     */
+    static void select(double[] fitness, int n, int k, int[] winners, int count, Random rnd_) {
+        for (int t = 0; t < count; t++) {
+            winners[t] = winner(fitness, n, k, rnd_);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Random;
+
 /**
  * Utilities for the algorithm:
  * e.g.: constants, public methods, variables used for the program
@@ -5,6 +7,13 @@
 class Util {
     // Compute population statistics (diversity)
     final static boolean COMPUTE_STATS = false;
+    // Count the bytes allocated and the garbage collections during the run
+    final static boolean COUNT_ALLOCATIONS = false;
+    // Time every phase of the evolution loop, per island (PhaseStatistics)
+    final static boolean INSTRUMENT = false;
+    // Log the statistics of every generation to TELEMETRY_FILE (Telemetry)
+    final static boolean TELEMETRY = false;
+    final static String TELEMETRY_FILE = "telemetry.bin";
     // Dimension of the functions; 10 dimensions
     final static int DIMENSION = 10;
     // The minimum value that the variables (phenotypes) can take
@@ -33,16 +42,40 @@ class Util {
 
     Mutation mutation = Mutation.UNCORRELATED_N_STEP;
     ParentSelection parentSelection = ParentSelection.TOURNAMENT;
+    Sampling sampling = Sampling.SUS;
     Recombination recombination = Recombination.WHOLE_ARITHMETIC;
     SurvivorSelection survivorSelection = SurvivorSelection.MU_PLUS_LAMBDA;
     Topology topology = Topology.RING;
     Policy policy = Policy.BEST_WORST;
+    Restart restart = Restart.NONE;
     // use fitness sharing or not
     boolean FITNESS_SHARING;
     // use deterministic crowding or not
     boolean DETERMINISTIC_CROWDING;
     // use island model
     boolean ISLAND_MODEL;
+    // store the population in flat arrays (ArrayPopulation) instead of Individual objects
+    boolean ARRAY_POPULATION;
+    // reuse discarded individuals as offspring instead of allocating new ones
+    boolean OFFSPRING_POOL;
+    // number of threads used to evaluate the offspring (1 evaluates sequentially)
+    int EVALUATION_THREADS;
+    // run every island of the island model on its own thread
+    boolean PARALLEL_ISLANDS;
+    // let concurrent islands migrate through mailboxes instead of waiting for each other
+    boolean ASYNC_MIGRATION;
+    // replace the population by a CMA-ES search distribution (CMAESPopulation)
+    boolean CMA_ES;
+    // insert every child as soon as it is evaluated (SteadyStatePopulation)
+    boolean STEADY_STATE;
+    // number of genotypes whose fitness is remembered (CachingEvaluation), 0 turns the cache off
+    int FITNESS_CACHE_SIZE;
+    // create more offspring and only evaluate the ones a surrogate model predicts to be best
+    boolean SURROGATE;
+    // mutate the offspring of an ArrayPopulation in one pass of the Vector API kernel (MutationKernel)
+    boolean VECTOR_MUTATION;
+    // draw the random numbers from a FastRandom (xoshiro256**, ziggurat Gaussians) instead of java.util.Random
+    boolean FAST_RANDOM;
 
     // mutation options for an individual
     enum Mutation {
@@ -62,6 +95,13 @@ class Util {
         TOURNAMENT
     }
 
+    // how parents are sampled from their selection probabilities
+    enum Sampling {
+        SUS,
+        ROULETTE,
+        ALIAS
+    }
+
     // recombination options for parents
     enum Recombination {
         SIMPLE_ARITHMETIC,
@@ -90,6 +130,23 @@ class Util {
         BEST_WORST
     }
 
+    // the phases of a generation that are timed
+    enum Phase {
+        SELECT_PARENTS,
+        RECOMBINE,
+        MUTATE,
+        EVALUATE,
+        SELECT_SURVIVORS,
+        MIGRATE
+    }
+
+    // restart strategies when the population stagnates
+    enum Restart {
+        NONE,
+        IPOP,
+        BIPOP
+    }
+
     // The ratio of offspring to population size
     final static double OFFSPRING_RATIO = 1.0;
     // The number of individuals in the population
@@ -108,6 +165,17 @@ class Util {
         this.DETERMINISTIC_CROWDING = false;
         this.FITNESS_SHARING = false;
         this.ISLAND_MODEL = false;
+        this.ARRAY_POPULATION = false;
+        this.OFFSPRING_POOL = false;
+        this.EVALUATION_THREADS = 1;
+        this.PARALLEL_ISLANDS = false;
+        this.ASYNC_MIGRATION = false;
+        this.CMA_ES = false;
+        this.STEADY_STATE = false;
+        this.FITNESS_CACHE_SIZE = 0;
+        this.SURROGATE = false;
+        this.VECTOR_MUTATION = false;
+        this.FAST_RANDOM = false;
         this.POPULATION_SIZE = 100;
         this.N_POPULATIONS = 1;
         this.EPOCH = 0;
@@ -124,6 +192,17 @@ class Util {
         this.DETERMINISTIC_CROWDING = util.DETERMINISTIC_CROWDING;
         this.FITNESS_SHARING = util.FITNESS_SHARING;
         this.ISLAND_MODEL = util.ISLAND_MODEL;
+        this.ARRAY_POPULATION = util.ARRAY_POPULATION;
+        this.OFFSPRING_POOL = util.OFFSPRING_POOL;
+        this.EVALUATION_THREADS = util.EVALUATION_THREADS;
+        this.PARALLEL_ISLANDS = util.PARALLEL_ISLANDS;
+        this.ASYNC_MIGRATION = util.ASYNC_MIGRATION;
+        this.CMA_ES = util.CMA_ES;
+        this.STEADY_STATE = util.STEADY_STATE;
+        this.FITNESS_CACHE_SIZE = util.FITNESS_CACHE_SIZE;
+        this.SURROGATE = util.SURROGATE;
+        this.VECTOR_MUTATION = util.VECTOR_MUTATION;
+        this.FAST_RANDOM = util.FAST_RANDOM;
     }
 
     void changeIslandUtils(int nPopulations, int epoch) {
@@ -137,4 +216,64 @@ class Util {
         this.tauPrime = tauPrime;
         this.epsilon = epsilon;
     }
+
+    /**
+     * The minimum mutation step size, which shrinks as the budget is used up.
+     *
+     * @param evaluationsLeft the number of evaluations that are left
+     * @param evaluationsLimit the total number of evaluations
+     * @return the minimum step size
+     */
+    double mutationEpsilon(int evaluationsLeft, int evaluationsLimit) {
+        double timeDependentEval = (double) evaluationsLeft / evaluationsLimit;
+        return epsilon * Math.pow(timeDependentEval, 4);
+    }
+
+    /**
+     * Creates the random generator of a run.
+     *
+     * @param seed the seed
+     * @return a FastRandom when FAST_RANDOM is set, otherwise a java.util.Random
+     */
+    Random createRandom(long seed) {
+        if (FAST_RANDOM) {
+            return new FastRandom(seed);
+        }
+        return new Random(seed);
+    }
+
+    /**
+     * Creates the random generator of another thread, like an island that
+     * evolves on its own thread.
+     *
+     * @param rnd_ the generator of the run
+     * @return a split of a FastRandom, otherwise a java.util.Random seeded from rnd_
+     */
+    static Random split(Random rnd_) {
+        if (rnd_ instanceof FastRandom) {
+            return ((FastRandom) rnd_).split();
+        }
+        return new Random(rnd_.nextLong());
+    }
+
+    /**
+     * The diversity of Morrison & de Jong per individual.
+     *
+     * @param population the population
+     * @param size the number of individuals in the population
+     * @return the mean squared distance of the individuals to their centroid
+     */
+    static double meanDiversity(IPopulation population, int size) {
+        double[] sumValues = population.getSumValues();
+        double[] meanValues = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            meanValues[i] = sumValues[i] / size;
+        }
+        double[] diversity = population.getDiversity(meanValues);
+        double d = 0.0;
+        for (int i = 0; i < DIMENSION; i++) {
+            d += diversity[i];
+        }
+        return d / size;
+    }
 }
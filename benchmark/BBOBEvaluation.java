@@ -0,0 +1,287 @@
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A contest evaluation computed in Java instead of by the native BBOB
+ * library: a port of the noiseless BBOB 2009 functions in 10 dimensions,
+ * with the instance (trial) 1 that the contest evaluations use. The raw
+ * function value is turned into a score in the same way as the contest
+ * evaluations do, 10 * exp(-5 (f - target) / (base - target)) clipped to
+ * [0, 10], and the evaluation limit allows one evaluation more than the
+ * Evaluations property, like theirs.
+ *
+ * Every evaluation only reads the constants of the function, and the
+ * counters are atomic, so it can be called from several threads at once.
+ * A batch reserves its part of the budget and updates the best score once.
+ * The rotations are kept as flat row-major arrays, so the products with a
+ * vector are plain loops the JIT can vectorise.
+ */
+abstract class BBOBEvaluation implements ThreadSafeEvaluation, BatchEvaluation {
+    static final int DIMENSION = Util.DIMENSION;
+    // the distance of the target to the optimum
+    private static final double PRECISION = 1e-8;
+
+    private final int evaluationsLimit;
+    private final double base;
+    private final double target;
+    private final Properties properties;
+    private final AtomicInteger evaluations;
+    // the bits of the best score, which is never negative so the bits are ordered like the scores
+    private final AtomicLong best;
+
+    // the optimum of the function and its value
+    final double[] xopt;
+    final double fopt;
+
+    /**
+     * @param function the number of the BBOB function
+     * @param evaluationsLimit the number of evaluations
+     * @param base the function value with a score of 10 * exp(-5)
+     * @param multimodal the Multimodal property
+     * @param regular the Regular property
+     * @param separable the Separable property
+     */
+    BBOBEvaluation(int function, int evaluationsLimit, double base, boolean multimodal, boolean regular,
+                   boolean separable) {
+        this.evaluationsLimit = evaluationsLimit;
+        this.base = base;
+        this.fopt = computeFopt(function);
+        this.target = fopt + PRECISION;
+        this.xopt = new double[DIMENSION];
+        this.evaluations = new AtomicInteger();
+        this.best = new AtomicLong(Double.doubleToLongBits(0.0));
+
+        properties = new Properties();
+        properties.put("Multimodal", Boolean.toString(multimodal));
+        properties.put("Regular", Boolean.toString(regular));
+        properties.put("Separable", Boolean.toString(separable));
+        properties.put("Evaluations", Integer.toString(evaluationsLimit));
+    }
+
+    /**
+     * @param x the genotype, or several genotypes one after the other
+     * @param offset the index in x of the first value of the genotype
+     * @return the raw function value, including fopt and the penalty for leaving [-5, 5]
+     */
+    abstract double function(double[] x, int offset);
+
+    @Override
+    public Object evaluate(Object genotype) {
+        if (!(genotype instanceof double[]) || ((double[]) genotype).length != DIMENSION) {
+            throw new IllegalArgumentException();
+        }
+        if (evaluations.incrementAndGet() > evaluationsLimit + 1) {
+            return null;
+        }
+        double score = score(function((double[]) genotype, 0));
+        best.accumulateAndGet(Double.doubleToLongBits(score), Math::max);
+        return score;
+    }
+
+    @Override
+    public int evaluate(double[] genotypes, int offset, int count, double[] fitness) {
+        int used = evaluations.getAndAdd(count);
+        int allowed = Math.max(0, Math.min(count, evaluationsLimit + 1 - used));
+        double bestScore = 0.0;
+        for (int i = offset; i < offset + allowed; i++) {
+            fitness[i] = score(function(genotypes, i * DIMENSION));
+            bestScore = Math.max(bestScore, fitness[i]);
+        }
+        best.accumulateAndGet(Double.doubleToLongBits(bestScore), Math::max);
+        return allowed;
+    }
+
+    private double score(double f) {
+        double score = 10.0 * Math.exp(-5.0 * (f - target) / (base - target));
+        return Math.max(0.0, Math.min(10.0, score));
+    }
+
+    @Override
+    public Object getData(Object arg) {
+        return null;
+    }
+
+    @Override
+    public double getFinalResult() {
+        return Double.longBitsToDouble(best.get());
+    }
+
+    @Override
+    public Properties getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return the raw value a genotype has to reach for the maximum score
+     */
+    double getTarget() {
+        return target;
+    }
+
+    /* *******************
+     * THE BBOB 2009 HELPERS
+     *********************/
+
+    /**
+     * The seed of the function: BBOB seeds every function with its number
+     * plus 10000 times the trial.
+     */
+    static int seed(int function) {
+        return function + 10000;
+    }
+
+    /**
+     * The uniform random numbers of BBOB: a Park-Miller generator shuffled
+     * by a table of 32 entries.
+     */
+    static double[] uniform(int n, int seed) {
+        double[] r = new double[n];
+        int[] table = new int[32];
+        int current = Math.max(1, Math.abs(seed));
+        for (int i = 39; i >= 0; i--) {
+            current = parkMiller(current);
+            if (i < 32) {
+                table[i] = current;
+            }
+        }
+        int output = table[0];
+        for (int i = 0; i < n; i++) {
+            current = parkMiller(current);
+            int slot = output / 67108865;
+            output = table[slot];
+            table[slot] = current;
+            r[i] = output / 2.147483647e9;
+            if (r[i] == 0.0) {
+                r[i] = 1e-99;
+            }
+        }
+        return r;
+    }
+
+    private static int parkMiller(int seed) {
+        int tmp = seed / 127773;
+        seed = 16807 * (seed - tmp * 127773) - 2836 * tmp;
+        if (seed < 0) {
+            seed += 2147483647;
+        }
+        return seed;
+    }
+
+    /**
+     * The standard normal random numbers of BBOB, by the Box-Muller transform.
+     */
+    static double[] gauss(int n, int seed) {
+        double[] u = uniform(2 * n, seed);
+        double[] g = new double[n];
+        for (int i = 0; i < n; i++) {
+            g[i] = Math.sqrt(-2 * Math.log(u[i])) * Math.cos(2 * Math.PI * u[n + i]);
+            if (g[i] == 0.0) {
+                g[i] = 1e-99;
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Sets xopt to a random point in [-4, 4] on a grid of 1e-4.
+     */
+    void computeXopt(int seed) {
+        double[] u = uniform(DIMENSION, seed);
+        for (int i = 0; i < DIMENSION; i++) {
+            xopt[i] = 8 * Math.floor(1e4 * u[i]) / 1e4 - 4;
+            if (xopt[i] == 0.0) {
+                xopt[i] = -1e-5;
+            }
+        }
+    }
+
+    /**
+     * @return the optimal function value, a random value in [-1000, 1000] rounded to 0.01
+     */
+    private static double computeFopt(int function) {
+        int seed = seed(function);
+        double value = round(100.0 * 100.0 * gauss(1, seed)[0] / gauss(1, seed + 1)[0]) / 100.0;
+        return Math.min(1000.0, Math.max(-1000.0, value));
+    }
+
+    /**
+     * @return a random orthogonal matrix, row-major, by Gram-Schmidt on a gaussian matrix
+     */
+    static double[] computeRotation(int seed) {
+        double[] g = gauss(DIMENSION * DIMENSION, seed);
+        double[] b = new double[DIMENSION * DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            for (int j = 0; j < DIMENSION; j++) {
+                b[i * DIMENSION + j] = g[j * DIMENSION + i];
+            }
+        }
+        // orthonormalise the columns
+        for (int i = 0; i < DIMENSION; i++) {
+            for (int j = 0; j < i; j++) {
+                double product = 0.0;
+                for (int k = 0; k < DIMENSION; k++) {
+                    product += b[k * DIMENSION + i] * b[k * DIMENSION + j];
+                }
+                for (int k = 0; k < DIMENSION; k++) {
+                    b[k * DIMENSION + i] -= product * b[k * DIMENSION + j];
+                }
+            }
+            double product = 0.0;
+            for (int k = 0; k < DIMENSION; k++) {
+                product += b[k * DIMENSION + i] * b[k * DIMENSION + i];
+            }
+            for (int k = 0; k < DIMENSION; k++) {
+                b[k * DIMENSION + i] /= Math.sqrt(product);
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Sets out to the product of the row-major matrix and x.
+     */
+    static void multiply(double[] matrix, double[] x, double[] out) {
+        for (int i = 0; i < DIMENSION; i++) {
+            double sum = 0.0;
+            int row = i * DIMENSION;
+            for (int j = 0; j < DIMENSION; j++) {
+                sum += matrix[row + j] * x[j];
+            }
+            out[i] = sum;
+        }
+    }
+
+    /**
+     * The asymmetric transformation of BBOB: the positive coordinates are raised
+     * to a power that grows with their index and their size.
+     */
+    static void asymmetric(double[] x, double beta) {
+        for (int i = 0; i < DIMENSION; i++) {
+            if (x[i] > 0) {
+                x[i] = Math.pow(x[i], 1 + beta * i / (DIMENSION - 1) * Math.sqrt(x[i]));
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the squared distances of the coordinates beyond [-5, 5]
+     */
+    static double penalty(double[] x, int offset) {
+        double penalty = 0.0;
+        for (int i = 0; i < DIMENSION; i++) {
+            double d = Math.abs(x[offset + i]) - 5.0;
+            if (d > 0) {
+                penalty += d * d;
+            }
+        }
+        return penalty;
+    }
+
+    /**
+     * Rounds half up, like the round of BBOB.
+     */
+    static double round(double a) {
+        return Math.floor(a + 0.5);
+    }
+}
@@ -0,0 +1,244 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs player16 on a grid of evaluations, seeds, population sizes and Util
+ * settings, with several runs at the same time in one JVM, and writes one
+ * CSV line per run. All runs share the JIT-compiled code, so only the first
+ * few pay for the warm-up.
+ *
+ * Every argument is a grid axis of the form name=value,value,...:
+ * - functions: the evaluation classes (default BentCigarFunction, SchaffersEvaluation, KatsuuraEvaluation)
+ * - seeds: seeds or ranges of seeds, like 1-30 (default 1)
+ * - sizes: population sizes (default the size player16 chooses for the function)
+ * - threads: the number of runs at the same time (default the number of processors)
+ * - out: the CSV file (default results.csv)
+ * - any other name is a field of Util, like mutation=CORRELATED,UNIFORM or FITNESS_SHARING=true
+ *
+ * The settings are applied after player16 has chosen its own for the function.
+ * Evaluations that are not a ThreadSafeEvaluation (the BBOB functions keep
+ * their state in the native library) are run one run at a time; the other
+ * runs go on meanwhile.
+ *
+ * Usage: java BatchRunner functions=KatsuuraEvaluation seeds=1-10 sizes=100,250 restart=NONE,IPOP
+ */
+class BatchRunner {
+    private static final String[] DEFAULT_FUNCTIONS = {"BentCigarFunction", "SchaffersEvaluation",
+            "KatsuuraEvaluation"};
+    // held for a whole run of an evaluation that is not thread safe
+    private static final Object SERIAL = new Object();
+
+    private final String function;
+    private final long seed;
+    // the population size, or 0 for the size player16 chooses
+    private final int size;
+    private final Map<String, String> settings;
+
+    private BatchRunner(String function, long seed, int size, Map<String, String> settings) {
+        this.function = function;
+        this.seed = seed;
+        this.size = size;
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, NoSuchFieldException {
+        List<String> functions = list(DEFAULT_FUNCTIONS);
+        List<Long> seeds = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = "results.csv";
+        // the Util settings, every one with its values
+        Map<String, List<String>> axes = new LinkedHashMap<>();
+
+        for (String arg: args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected name=value,...: " + arg);
+            }
+            String name = arg.substring(0, split);
+            List<String> values = list(arg.substring(split + 1).split(","));
+            switch (name) {
+                case "functions":
+                    functions = values;
+                    break;
+                case "seeds":
+                    for (String value: values) {
+                        int dash = value.indexOf('-', 1);
+                        long first = Long.parseLong(dash < 0 ? value : value.substring(0, dash));
+                        long last = dash < 0 ? first : Long.parseLong(value.substring(dash + 1));
+                        for (long seed = first; seed <= last; seed++) {
+                            seeds.add(seed);
+                        }
+                    }
+                    break;
+                case "sizes":
+                    for (String value: values) {
+                        sizes.add(Integer.parseInt(value));
+                    }
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(values.get(0));
+                    break;
+                case "out":
+                    out = values.get(0);
+                    break;
+                default:
+                    // fail before any run starts if the field does not exist
+                    Util.class.getDeclaredField(name);
+                    axes.put(name, values);
+            }
+        }
+        if (seeds.isEmpty()) {
+            seeds.add(1L);
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(0);
+        }
+
+        List<BatchRunner> runs = new ArrayList<>();
+        for (Map<String, String> settings: combinations(axes)) {
+            for (String function: functions) {
+                for (int size: sizes) {
+                    for (long seed: seeds) {
+                        runs.add(new BatchRunner(function, seed, size, settings));
+                    }
+                }
+            }
+        }
+        System.out.println(runs.size() + " runs on " + threads + " threads");
+
+        try (PrintWriter csv = new PrintWriter(new FileWriter(out))) {
+            StringBuilder header = new StringBuilder("function,seed,size");
+            for (String name: axes.keySet()) {
+                header.append(',').append(name);
+            }
+            csv.println(header.append(",score,milliseconds"));
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (BatchRunner run: runs) {
+                executor.execute(() -> {
+                    try {
+                        String line = run.run();
+                        synchronized (csv) {
+                            csv.println(line);
+                            csv.flush();
+                        }
+                    }
+                    catch (Exception e) {
+                        System.err.println("Run failed: " + run.function + " seed " + run.seed + " " + run.settings);
+                        e.printStackTrace();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+    }
+
+    /**
+     * Does the run.
+     *
+     * @return the CSV line of the run
+     */
+    private String run() throws ReflectiveOperationException {
+        Class<?> type = Class.forName(function);
+        if (ThreadSafeEvaluation.class.isAssignableFrom(type)) {
+            return run((ContestEvaluation) type.getDeclaredConstructor().newInstance());
+        }
+        // the BBOB evaluations already initialise the native library when they are created
+        synchronized (SERIAL) {
+            return run((ContestEvaluation) type.getDeclaredConstructor().newInstance());
+        }
+    }
+
+    private String run(ContestEvaluation evaluation) throws IllegalAccessException, NoSuchFieldException {
+        player16 player = new player16();
+        // setSeed does not use its seed, so the runs are seeded here
+        player.rnd_ = new Random(seed);
+        player.setEvaluation(evaluation);
+        if (size > 0) {
+            player.populationSize = size;
+        }
+        for (Map.Entry<String, String> setting: settings.entrySet()) {
+            set(player.util, setting.getKey(), setting.getValue());
+        }
+
+        long start = System.nanoTime();
+        player.run();
+        long milliseconds = (System.nanoTime() - start) / 1_000_000;
+
+        StringBuilder line = new StringBuilder();
+        line.append(function).append(',').append(seed).append(',').append(player.populationSize);
+        for (String value: settings.values()) {
+            line.append(',').append(value);
+        }
+        line.append(',').append(evaluation.getFinalResult()).append(',').append(milliseconds);
+        return line.toString();
+    }
+
+    /**
+     * Sets a field of util from its text, which is the name of the constant for an enum.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void set(Util util, String name, String value) throws IllegalAccessException,
+            NoSuchFieldException {
+        Field field = Util.class.getDeclaredField(name);
+        field.setAccessible(true);
+        Class<?> type = field.getType();
+        if (type == boolean.class) {
+            field.setBoolean(util, Boolean.parseBoolean(value));
+        }
+        else if (type == int.class) {
+            field.setInt(util, Integer.parseInt(value));
+        }
+        else if (type == double.class) {
+            field.setDouble(util, Double.parseDouble(value));
+        }
+        else if (type.isEnum()) {
+            field.set(util, Enum.valueOf((Class) type, value));
+        }
+        else {
+            throw new IllegalArgumentException("Cannot set " + name);
+        }
+    }
+
+    /**
+     * @return every combination of one value of each of the settings
+     */
+    private static List<Map<String, String>> combinations(Map<String, List<String>> axes) {
+        List<Map<String, String>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> axis: axes.entrySet()) {
+            List<Map<String, String>> extended = new ArrayList<>();
+            for (Map<String, String> combination: combinations) {
+                for (String value: axis.getValue()) {
+                    Map<String, String> settings = new LinkedHashMap<>(combination);
+                    settings.put(axis.getKey(), value);
+                    extended.add(settings);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations;
+    }
+
+    private static List<String> list(String... values) {
+        List<String> list = new ArrayList<>();
+        for (String value: values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * The bent cigar function (BBOB f12) of BentCigarFunction, computed in Java.
+ */
+public class JavaBentCigarEvaluation extends BBOBEvaluation {
+    private static final int FUNCTION = 12;
+    private static final double CONDITION = 1e6;
+    private final double[] rotation;
+
+    public JavaBentCigarEvaluation() {
+        super(FUNCTION, 10000, 9273454.0, false, false, false);
+        computeXopt(seed(FUNCTION) + 1000000);
+        rotation = computeRotation(seed(FUNCTION) + 1000000);
+    }
+
+    @Override
+    double function(double[] x, int offset) {
+        double[] shifted = new double[DIMENSION];
+        double[] z = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            shifted[i] = x[offset + i] - xopt[i];
+        }
+        multiply(rotation, shifted, z);
+        asymmetric(z, 0.5);
+        multiply(rotation, z, shifted);
+
+        double f = 0.0;
+        for (int i = 1; i < DIMENSION; i++) {
+            f += shifted[i] * shifted[i];
+        }
+        return shifted[0] * shifted[0] + CONDITION * f + fopt;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * The Katsuura function (BBOB f23) of KatsuuraEvaluation, computed in Java.
+ */
+public class JavaKatsuuraEvaluation extends BBOBEvaluation {
+    private static final int FUNCTION = 23;
+    private static final double CONDITION = 100.0;
+    // the number of terms of the sum of every coordinate
+    private static final int TERMS = 32;
+    // the rotation, the scaling by the square root of the condition and the second rotation in one matrix
+    private final double[] linear;
+    private final double[] powers;
+
+    public JavaKatsuuraEvaluation() {
+        super(FUNCTION, 1000000, 7.73838444, true, false, false);
+        computeXopt(seed(FUNCTION));
+        double[] rotation = computeRotation(seed(FUNCTION) + 1000000);
+        double[] rotation2 = computeRotation(seed(FUNCTION));
+        linear = new double[DIMENSION * DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            for (int j = 0; j < DIMENSION; j++) {
+                for (int k = 0; k < DIMENSION; k++) {
+                    linear[i * DIMENSION + j] += rotation[i * DIMENSION + k]
+                            * Math.pow(Math.sqrt(CONDITION), (double) k / (DIMENSION - 1))
+                            * rotation2[k * DIMENSION + j];
+                }
+            }
+        }
+        powers = new double[TERMS + 1];
+        for (int j = 1; j <= TERMS; j++) {
+            powers[j] = Math.pow(2.0, j);
+        }
+    }
+
+    @Override
+    double function(double[] x, int offset) {
+        double[] shifted = new double[DIMENSION];
+        double[] z = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            shifted[i] = x[offset + i] - xopt[i];
+        }
+        multiply(linear, shifted, z);
+
+        double product = 1.0;
+        for (int i = 0; i < DIMENSION; i++) {
+            double sum = 0.0;
+            for (int j = 1; j <= TERMS; j++) {
+                double a = z[i] * powers[j];
+                sum += Math.abs(a - round(a)) / powers[j];
+            }
+            product *= 1.0 + sum * (i + 1);
+        }
+        double f = 10.0 / DIMENSION / DIMENSION * (Math.pow(product, 10.0 / Math.pow(DIMENSION, 1.2)) - 1.0);
+        return f + penalty(x, offset) + fopt;
+    }
+}
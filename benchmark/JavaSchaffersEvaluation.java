@@ -0,0 +1,44 @@
+/**
+ * The Schaffers F7 function with condition 10 (BBOB f17) of SchaffersEvaluation, computed in Java.
+ */
+public class JavaSchaffersEvaluation extends BBOBEvaluation {
+    private static final int FUNCTION = 17;
+    private static final double CONDITION = 10.0;
+    private final double[] rotation;
+    // the scaling by the square root of the condition, then the second rotation
+    private final double[] linear;
+
+    public JavaSchaffersEvaluation() {
+        super(FUNCTION, 100000, -13.35288, true, true, false);
+        computeXopt(seed(FUNCTION));
+        rotation = computeRotation(seed(FUNCTION) + 1000000);
+        linear = computeRotation(seed(FUNCTION));
+        for (int i = 0; i < DIMENSION; i++) {
+            double scale = Math.pow(Math.sqrt(CONDITION), (double) i / (DIMENSION - 1));
+            for (int j = 0; j < DIMENSION; j++) {
+                linear[i * DIMENSION + j] *= scale;
+            }
+        }
+    }
+
+    @Override
+    double function(double[] x, int offset) {
+        double[] shifted = new double[DIMENSION];
+        double[] z = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            shifted[i] = x[offset + i] - xopt[i];
+        }
+        multiply(rotation, shifted, z);
+        asymmetric(z, 0.5);
+        multiply(linear, z, shifted);
+
+        double f = 0.0;
+        for (int i = 0; i < DIMENSION - 1; i++) {
+            double s = shifted[i] * shifted[i] + shifted[i + 1] * shifted[i + 1];
+            double sin = Math.sin(50 * Math.pow(s, 0.1));
+            f += Math.pow(s, 0.25) * (sin * sin + 1.0);
+        }
+        f /= DIMENSION - 1;
+        return f * f + 10.0 * penalty(x, offset) + fopt;
+    }
+}
@@ -0,0 +1,214 @@
+import org.vu.contest.ContestEvaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Measures the cost of the evolutionary operators per generation, for a
+ * number of operator settings and population sizes. Every phase of a
+ * generation (parent selection, recombination, mutation, evaluation,
+ * survivor selection and, for the island model, the exchange) is timed
+ * separately and reported as the mean time per generation after a warm-up.
+ * The evaluation is a cheap sphere function, so the times are those of the
+ * operators themselves.
+ *
+ * This is a plain main class instead of a JMH benchmark: JMH does not accept
+ * benchmarks in the default package, and the populations and operators are
+ * package-private classes of the default package. The benchmark lives in its
+ * own (test) source folder so it is not part of the submission.
+ *
+ * Usage: java OperatorBenchmark [population sizes...]
+ */
+class OperatorBenchmark {
+    // the time every configuration runs before and while it is measured
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+    private static final int[] DEFAULT_SIZES = {50, 200, 1000, 5000};
+    private static final String[] PHASES = {"selectParents", "recombine", "mutate",
+            "evaluate", "selectSurvivors", "makeExchange"};
+
+    private final String name;
+    private final Consumer<Util> settings;
+
+    private OperatorBenchmark(String name, Consumer<Util> settings) {
+        this.name = name;
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-34s %6s", "configuration", "size");
+        for (String phase: PHASES) {
+            System.out.printf(" %16s", phase);
+        }
+        System.out.println("   (ns per generation)");
+        for (OperatorBenchmark benchmark: configurations()) {
+            for (int size: sizes) {
+                benchmark.run(size);
+            }
+        }
+    }
+
+    /**
+     * @return the operator settings that are measured
+     */
+    private static List<OperatorBenchmark> configurations() {
+        List<OperatorBenchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new OperatorBenchmark("default", util -> { }));
+        benchmarks.add(new OperatorBenchmark("array population", util -> util.ARRAY_POPULATION = true));
+        benchmarks.add(new OperatorBenchmark("offspring pool", util -> util.OFFSPRING_POOL = true));
+        benchmarks.add(new OperatorBenchmark("fast random", util -> util.FAST_RANDOM = true));
+
+        benchmarks.add(new OperatorBenchmark("parents LINEAR_RANK SUS",
+                util -> util.parentSelection = Util.ParentSelection.LINEAR_RANK));
+        benchmarks.add(new OperatorBenchmark("parents EXPONENTIAL_RANK SUS",
+                util -> util.parentSelection = Util.ParentSelection.EXPONENTIAL_RANK));
+        benchmarks.add(new OperatorBenchmark("parents FPS SUS",
+                util -> util.parentSelection = Util.ParentSelection.FPS));
+        benchmarks.add(new OperatorBenchmark("parents FPS ROULETTE", util -> {
+            util.parentSelection = Util.ParentSelection.FPS;
+            util.sampling = Util.Sampling.ROULETTE;
+        }));
+        benchmarks.add(new OperatorBenchmark("parents FPS ALIAS", util -> {
+            util.parentSelection = Util.ParentSelection.FPS;
+            util.sampling = Util.Sampling.ALIAS;
+        }));
+        benchmarks.add(new OperatorBenchmark("fitness sharing", util -> {
+            util.parentSelection = Util.ParentSelection.FPS;
+            util.FITNESS_SHARING = true;
+        }));
+
+        for (Util.Recombination recombination: Util.Recombination.values()) {
+            benchmarks.add(new OperatorBenchmark("recombination " + recombination,
+                    util -> util.recombination = recombination));
+        }
+        for (Util.Mutation mutation: Util.Mutation.values()) {
+            benchmarks.add(new OperatorBenchmark("mutation " + mutation,
+                    util -> util.mutation = mutation));
+        }
+        for (Util.SurvivorSelection survivorSelection: Util.SurvivorSelection.values()) {
+            benchmarks.add(new OperatorBenchmark("survivors " + survivorSelection,
+                    util -> util.survivorSelection = survivorSelection));
+        }
+
+        benchmarks.add(new OperatorBenchmark("island model RING", util -> util.changeIslandUtils(5, 1)));
+        benchmarks.add(new OperatorBenchmark("island model TORUS", util -> {
+            util.changeIslandUtils(Util.TORUS_N * Util.TORUS_M, 1);
+            util.topology = Util.Topology.TORUS;
+        }));
+        return benchmarks;
+    }
+
+    /**
+     * Warms up and measures one configuration with one population size, and prints the result.
+     */
+    private void run(int size) {
+        Util util = new Util();
+        settings.accept(util);
+        if (util.ISLAND_MODEL && size / util.N_POPULATIONS < Util.N_EXCHANGED) {
+            return;
+        }
+        Random rnd_ = util.createRandom(size);
+        ContestEvaluation evaluation = new Sphere();
+        IPopulation population = create(rnd_, util, size);
+        population.evalInitialPopulation(evaluation);
+
+        long[] nanos = new long[PHASES.length];
+        generations(population, rnd_, util, evaluation, WARMUP_NANOS, nanos);
+        nanos = new long[PHASES.length];
+        int generations = generations(population, rnd_, util, evaluation, MEASURE_NANOS, nanos);
+
+        System.out.printf("%-34s %6d", name, size);
+        for (long phase: nanos) {
+            System.out.printf(" %16d", phase / generations);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Runs generations until the time is up and adds the time of every phase to nanos.
+     *
+     * @return the number of generations
+     */
+    private static int generations(IPopulation population, Random rnd_, Util util,
+                                   ContestEvaluation evaluation, long duration, long[] nanos) {
+        int generations = 0;
+        long end = System.nanoTime() + duration;
+        while (System.nanoTime() < end) {
+            long t0 = System.nanoTime();
+            population.selectParents(rnd_);
+            long t1 = System.nanoTime();
+            population.recombine(rnd_);
+            long t2 = System.nanoTime();
+            population.mutate(rnd_, util.epsilon);
+            long t3 = System.nanoTime();
+            population.evalOffspring(evaluation);
+            long t4 = System.nanoTime();
+            population.selectSurvivors();
+            long t5 = System.nanoTime();
+            if (util.ISLAND_MODEL) {
+                population.makeExchange(rnd_);
+            }
+            long t6 = System.nanoTime();
+            nanos[0] += t1 - t0;
+            nanos[1] += t2 - t1;
+            nanos[2] += t3 - t2;
+            nanos[3] += t4 - t3;
+            nanos[4] += t5 - t4;
+            nanos[5] += t6 - t5;
+            generations++;
+        }
+        return generations;
+    }
+
+    private static IPopulation create(Random rnd_, Util util, int size) {
+        if (util.ISLAND_MODEL) {
+            return new IslandModel(rnd_, util, size);
+        }
+        if (util.ARRAY_POPULATION) {
+            return new ArrayPopulation(rnd_, util, size);
+        }
+        return new Population(rnd_, util, size);
+    }
+
+    /**
+     * A cheap evaluation without a limit, the fitness is positive and
+     * highest at the origin.
+     */
+    private static class Sphere implements ContestEvaluation {
+        @Override
+        public Object evaluate(Object genotype) {
+            double[] values = (double[]) genotype;
+            double sum = 0.0;
+            for (double value: values) {
+                sum += value * value;
+            }
+            return 10.0 / (1.0 + sum);
+        }
+
+        @Override
+        public Object getData(Object arg) {
+            return null;
+        }
+
+        @Override
+        public double getFinalResult() {
+            return 0.0;
+        }
+
+        @Override
+        public Properties getProperties() {
+            return new Properties();
+        }
+    }
+}
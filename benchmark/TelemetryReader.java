@@ -0,0 +1,49 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts a log written by Telemetry to CSV, one line per record.
+ *
+ * Usage: java TelemetryReader [log file [CSV file]]
+ * The log file is telemetry.bin by default, and the CSV is printed when no CSV file is given.
+ */
+class TelemetryReader {
+    public static void main(String[] args) throws IOException {
+        String log = args.length > 0 ? args[0] : Util.TELEMETRY_FILE;
+        Writer out = args.length > 1 ? new FileWriter(args[1]) : new OutputStreamWriter(System.out);
+        try (FileChannel channel = FileChannel.open(Paths.get(log), StandardOpenOption.READ);
+             PrintWriter csv = new PrintWriter(out)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Telemetry.HEADER_BYTES || buffer.getInt() != Telemetry.MAGIC) {
+                throw new IOException(log + " is not a telemetry log");
+            }
+            int version = buffer.getInt();
+            int recordBytes = buffer.getInt();
+            buffer.getInt();
+            if (version != Telemetry.VERSION || recordBytes != Telemetry.RECORD_BYTES) {
+                throw new IOException("Unsupported telemetry version " + version);
+            }
+
+            csv.println("generation,island,evaluations,best,mean,worst,diversity,sigma");
+            while (buffer.remaining() >= recordBytes) {
+                csv.print(buffer.getInt());
+                csv.print(',');
+                csv.print(buffer.getInt());
+                csv.print(',');
+                csv.print(buffer.getLong());
+                for (int i = 0; i < 5; i++) {
+                    csv.print(',');
+                    csv.print(buffer.getDouble());
+                }
+                csv.println();
+            }
+        }
+    }
+}
@@ -9,8 +9,8 @@ public class player16 implements ContestSubmission {
     Random rnd_;
     ContestEvaluation evaluation_;
     private int evaluations_limit_;
-    private int populationSize;
-    private Util util;
+    int populationSize;
+    Util util;
 
     public static void main(String[] args) {
         System.out.println("Test");
@@ -64,73 +64,304 @@ public class player16 implements ContestSubmission {
 
     public void run() {
         // Run your algorithm here
-        int evaluations = evaluations_limit_;
+        // the generator of the run is seeded from the one that was set up, so the seed still decides the run
+        if (util.FAST_RANDOM && !(rnd_ instanceof FastRandom)) {
+            rnd_ = util.createRandom(rnd_.nextLong());
+        }
         // initialize time dependent variables
-        double timeDependentEval;
         double mutationEpsilon;
-        // Population statistic
-        double[] sumValues;
-        double[] meanValues = new double[Util.DIMENSION];
-        double[] diversity;
-        // init population
-        IPopulation population;
-        if (util.ISLAND_MODEL) {
-            population = new IslandModel(rnd_, util, populationSize);
+        // evaluations shared by several threads need a thread safe wrapper
+        ContestEvaluation evaluation = evaluation_;
+        if (util.EVALUATION_THREADS > 1 || util.PARALLEL_ISLANDS) {
+            evaluation = new ConcurrentEvaluation(evaluation_, evaluations_limit_);
         }
-        else {
-            population = new Population(rnd_, util, populationSize);
+        // the population size of the current run, which grows with the restarts
+        int size = populationSize;
+        if (!util.ISLAND_MODEL && util.CMA_ES) {
+            size = CMAESPopulation.defaultLambda();
         }
-        // calculate fitness
-        evaluations -= population.evalInitialPopulation(evaluation_);
+        // the time of every phase, of the whole run and of every island
+        PhaseStatistics timings = new PhaseStatistics("Run");
+        PhaseStatistics[] islandTimings = islandStatistics();
+        // the log of the statistics of every generation
+        Telemetry telemetry = Util.TELEMETRY ? Telemetry.open(Util.TELEMETRY_FILE) : null;
+        if (util.ISLAND_MODEL && util.PARALLEL_ISLANDS) {
+            IslandModel islands = new IslandModel(rnd_, util, size);
+            islands.setStatistics(islandTimings);
+            islands.evalInitialPopulation(evaluation);
+            runIslandsConcurrently(islands, (ConcurrentEvaluation) evaluation, timings, telemetry);
+            if (Util.INSTRUMENT) {
+                printStatistics(timings, islandTimings);
+            }
+            if (telemetry != null) {
+                telemetry.close();
+            }
+            return;
+        }
+        // exact duplicates are answered from a cache and do not use up the budget
+        CachingEvaluation cache = null;
+        if (util.FITNESS_CACHE_SIZE > 0) {
+            cache = CachingEvaluation.wrap(evaluation, util.FITNESS_CACHE_SIZE);
+            evaluation = cache;
+        }
+        // the evaluations that are left, handed to every generation
+        BudgetScheduler budget = new BudgetScheduler(evaluations_limit_, cache);
         // generation counter
         int generation = 0;
-        // loop
-        while (evaluations > 0) {
-            if (util.ISLAND_MODEL && generation % util.EPOCH == 0) {
-                try {
-                    population.makeExchange(rnd_);
-                }
-                catch (UnsupportedOperationException e) {
-                    System.err.println("Not Island Model");
-                }
-            }
-            // change time dependent variables
-            timeDependentEval = (double) evaluations / evaluations_limit_;
-            mutationEpsilon = util.epsilon * Math.pow(timeDependentEval, 4);
-            // Select parents
-            population.selectParents(rnd_);
-            // Apply crossover / mutation operators
-            population.recombine(rnd_);
-            population.mutate(rnd_, mutationEpsilon);
-
+        // count the garbage produced by the evolution loop
+        AllocationCounter allocationCounter = new AllocationCounter();
+        if (Util.COUNT_ALLOCATIONS) {
+            allocationCounter.start();
+        }
+        // the surrogate that pre-screens the offspring, kept over the restarts
+        Surrogate surrogate = util.SURROGATE ? new Surrogate() : null;
+        // restart the population when it stagnates, until the evaluation limit is reached
+        RestartController restarts = new RestartController(util.restart, size, populationGranularity());
+        boolean limitReached = false;
+        while (!limitReached && !budget.exhausted()) {
+            int evaluationsAtStart = budget.used();
+            // init population
+            IPopulation population = createPopulation(size, surrogate, islandTimings);
+            // calculate fitness
             try {
-                evaluations -= population.evalOffspring(evaluation_);
+                budget.consume(population.evalInitialPopulation(evaluation));
             }
             catch (NullPointerException e) {
+                // only an evaluation that allows fewer evaluations than it reports gets here
                 System.out.println("Evaluation limit reached");
                 break;
             }
-            // Select survivors
-            population.selectSurvivors();
-            // population.printFitness();
+            // loop
+            while (!budget.exhausted()) {
+                if (util.ISLAND_MODEL && generation % util.EPOCH == 0) {
+                    long start = PhaseStatistics.now();
+                    try {
+                        population.makeExchange(rnd_);
+                    }
+                    catch (UnsupportedOperationException e) {
+                        System.err.println("Not Island Model");
+                    }
+                    timings.record(Util.Phase.MIGRATE, start, Util.N_EXCHANGED);
+                }
+                // change time dependent variables
+                mutationEpsilon = util.mutationEpsilon(budget.remaining(), evaluations_limit_);
+                // the last generation only creates the offspring that can be evaluated
+                budget.schedule(population);
+                // Select parents
+                long start = PhaseStatistics.now();
+                population.selectParents(rnd_);
+                timings.record(Util.Phase.SELECT_PARENTS, start, 1);
+                // Apply crossover / mutation operators
+                start = PhaseStatistics.now();
+                population.recombine(rnd_);
+                timings.record(Util.Phase.RECOMBINE, start, 1);
+                start = PhaseStatistics.now();
+                population.mutate(rnd_, mutationEpsilon);
+                timings.record(Util.Phase.MUTATE, start, 1);
 
-            // Compute generational population statistics
-            if (Util.COMPUTE_STATS) {
-                // Get the sum of the population allele-values
-                sumValues = population.getSumValues();
-                // Compute the mean from the sum value
-                for (int i = 0; i < Util.DIMENSION; i++) {
-                    meanValues[i] = sumValues[i] / (double) populationSize;
+                start = PhaseStatistics.now();
+                try {
+                    int used = population.evalOffspring(evaluation);
+                    budget.consume(used);
+                    timings.record(Util.Phase.EVALUATE, start, used);
                 }
-                // Compute the single diversity value
-                diversity = population.getDiversity(meanValues);
-                double d = 0.0;
-                for (int i = 0; i < Util.DIMENSION; i++) {
-                    d += diversity[i];
+                catch (NullPointerException e) {
+                    System.out.println("Evaluation limit reached");
+                    limitReached = true;
+                    break;
+                }
+                // Select survivors
+                start = PhaseStatistics.now();
+                population.selectSurvivors();
+                timings.record(Util.Phase.SELECT_SURVIVORS, start, 1);
+                // population.printFitness();
+
+                // Compute generational population statistics
+                if (Util.COMPUTE_STATS) {
+                    printDiversity(population, size, generation);
+                }
+                if (telemetry != null) {
+                    population.recordTelemetry(telemetry, 0, generation, budget.used());
+                }
+                generation++;
+                // a restart that cannot evaluate its initial population would waste the rest of the budget,
+                // so the run only ends when the largest size the restart can choose still fits
+                if (generation % stepsPerGeneration(size) == 0 && restarts.stagnated(population, size)
+                        && budget.fits(initialEvaluations(restarts.largestNextPopulationSize()))) {
+                    size = restarts.nextPopulationSize(rnd_, budget.used() - evaluationsAtStart);
+                    System.out.println("Restart with population size " + size);
+                    break;
                 }
-                System.out.println("Generation: " + generation + "Diversity: " + d);
             }
-            generation++;
         }
+        if (Util.COUNT_ALLOCATIONS) {
+            allocationCounter.stop();
+            allocationCounter.print(generation);
+        }
+        if (cache != null) {
+            System.out.println("Fitness cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+        }
+        if (surrogate != null) {
+            surrogate.printStatistics();
+        }
+        if (Util.INSTRUMENT) {
+            printStatistics(timings, islandTimings);
+        }
+        if (telemetry != null) {
+            telemetry.close();
+        }
+    }
+
+    /**
+     * Creates the population of a run.
+     *
+     * @param size the number of individuals, or of offspring for CMA-ES
+     * @param surrogate the surrogate that pre-screens the offspring, or null;
+     *                  only Population and IslandModel use it
+     * @param islandTimings the statistics the islands record their phases in, or null
+     * @return the population
+     */
+    private IPopulation createPopulation(int size, Surrogate surrogate, PhaseStatistics[] islandTimings) {
+        if (util.ISLAND_MODEL) {
+            IslandModel islands = new IslandModel(rnd_, util, size);
+            islands.setSurrogate(surrogate);
+            islands.setStatistics(islandTimings);
+            return islands;
+        }
+        else if (util.CMA_ES) {
+            return new CMAESPopulation(rnd_, util, size);
+        }
+        else if (util.STEADY_STATE) {
+            return new SteadyStatePopulation(rnd_, util, size);
+        }
+        else if (util.ARRAY_POPULATION) {
+            return new ArrayPopulation(rnd_, util, size);
+        }
+        else {
+            Population population = new Population(rnd_, util, size);
+            population.setSurrogate(surrogate);
+            return population;
+        }
+    }
+
+    /**
+     * @param size the population size
+     * @return the number of evaluations the initial population of that size uses
+     */
+    private int initialEvaluations(int size) {
+        if (!util.ISLAND_MODEL && util.CMA_ES) {
+            // CMA-ES starts from a distribution, not from evaluated individuals
+            return 0;
+        }
+        return size;
+    }
+
+    /**
+     * A steady-state population only replaces a few individuals per step,
+     * so as many steps as it takes to create a population count as one
+     * generation for the restarts.
+     *
+     * @param size the population size
+     * @return the number of steps in a generation
+     */
+    private int stepsPerGeneration(int size) {
+        if (!util.ISLAND_MODEL && !util.CMA_ES && util.STEADY_STATE) {
+            return Math.max(1, size / Util.N_PARENTS);
+        }
+        return 1;
+    }
+
+    /**
+     * @return the phase statistics of every island, kept over the restarts, or null without islands
+     */
+    private PhaseStatistics[] islandStatistics() {
+        if (!util.ISLAND_MODEL) {
+            return null;
+        }
+        PhaseStatistics[] statistics = new PhaseStatistics[util.N_POPULATIONS];
+        for (int i = 0; i < util.N_POPULATIONS; i++) {
+            statistics[i] = new PhaseStatistics("Island " + i);
+        }
+        return statistics;
+    }
+
+    /**
+     * Prints the time of every phase, of the whole run and of every island.
+     */
+    private void printStatistics(PhaseStatistics timings, PhaseStatistics[] islandTimings) {
+        timings.print();
+        if (islandTimings != null) {
+            for (PhaseStatistics island: islandTimings) {
+                island.print();
+            }
+        }
+    }
+
+    /**
+     * @return the number the population size has to be a multiple of
+     */
+    private int populationGranularity() {
+        if (util.ISLAND_MODEL) {
+            return util.N_POPULATIONS * Util.N_PARENTS;
+        }
+        else if (util.CMA_ES) {
+            return 1;
+        }
+        return Util.N_PARENTS;
+    }
+
+    /**
+     * Runs the island model with every island on its own thread. The islands
+     * only wait for each other at the exchanges, which happen every epoch.
+     * With asynchronous migration they never wait and run until the
+     * evaluation limit is reached.
+     *
+     * @param islands the evaluated initial populations
+     * @param evaluation the evaluation shared by the islands
+     * @param timings the statistics the exchanges are recorded in
+     * @param telemetry the log the islands are recorded in after every epoch, or null; with
+     *                  asynchronous migration every island records itself when its epoch ends
+     */
+    private void runIslandsConcurrently(IslandModel islands, ConcurrentEvaluation evaluation,
+                                        PhaseStatistics timings, Telemetry telemetry) {
+        if (util.ASYNC_MIGRATION) {
+            islands.evolve(evaluation, Integer.MAX_VALUE, telemetry);
+            return;
+        }
+        int generation = 0;
+        while (evaluation.getEvaluationsLeft() > 0) {
+            long start = PhaseStatistics.now();
+            islands.makeExchange(rnd_);
+            timings.record(Util.Phase.MIGRATE, start, Util.N_EXCHANGED);
+            islands.evolve(evaluation, util.EPOCH, null);
+            generation += util.EPOCH;
+            if (Util.COMPUTE_STATS) {
+                printDiversity(islands, populationSize, generation);
+            }
+            if (telemetry != null) {
+                islands.recordTelemetry(telemetry, 0, generation,
+                        evaluation.getEvaluationsLimit() - evaluation.getEvaluationsLeft());
+            }
+        }
+    }
+
+    /**
+     * Prints the population diversity measure due to Morrison & de Jong (2001).
+     */
+    private void printDiversity(IPopulation population, int size, int generation) {
+        // Get the sum of the population allele-values
+        double[] sumValues = population.getSumValues();
+        // Compute the mean from the sum value
+        double[] meanValues = new double[Util.DIMENSION];
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            meanValues[i] = sumValues[i] / (double) size;
+        }
+        // Compute the single diversity value
+        double[] diversity = population.getDiversity(meanValues);
+        double d = 0.0;
+        for (int i = 0; i < Util.DIMENSION; i++) {
+            d += diversity[i];
+        }
+        System.out.println("Generation: " + generation + "Diversity: " + d);
     }
 }
@@ -0,0 +1,67 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The mutation kernel on the Vector API: every step handles as many values
+ * as fit in the widest vector register of the machine, the rest of the
+ * block is done one value at a time. The exponential is the lane-wise EXP
+ * of the Vector API, so the step sizes may differ from Math.exp in the last
+ * bit.
+ *
+ * Needs Java 16 or later and the incubator module, both to compile and to run:
+ * javac --add-modules jdk.incubator.vector -cp out/production/assignment -d out/vector/assignment vector/*.java
+ * java --add-modules jdk.incubator.vector -cp out/production/assignment:out/vector/assignment:contest.jar ...
+ * MutationKernel.load() falls back to the scalar kernel when either is missing.
+ */
+class VectorMutationKernel implements MutationKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void nonUniform(double[] values, int offset, double[] gauss, double[] steps, int length) {
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Util.MIN_VALUE);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Util.MAX_VALUE);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector g = DoubleVector.fromArray(SPECIES, gauss, i);
+            DoubleVector step = DoubleVector.fromArray(SPECIES, steps, i);
+            DoubleVector.fromArray(SPECIES, values, offset + i)
+                    .add(step.mul(g))
+                    .max(min)
+                    .min(max)
+                    .intoArray(values, offset + i);
+        }
+        for (; i < length; i++) {
+            values[offset + i] = Math.min(Util.MAX_VALUE,
+                    Math.max(Util.MIN_VALUE, values[offset + i] + steps[i] * gauss[i]));
+        }
+    }
+
+    @Override
+    public void uncorrelatedNStep(double[] values, double[] sigmas, int offset, double[] gauss,
+                                  double[] exponents, int length, double epsilon) {
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Util.MIN_VALUE);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Util.MAX_VALUE);
+        DoubleVector smallest = DoubleVector.broadcast(SPECIES, epsilon);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector g = DoubleVector.fromArray(SPECIES, gauss, i);
+            DoubleVector sigma = DoubleVector.fromArray(SPECIES, sigmas, offset + i)
+                    .mul(DoubleVector.fromArray(SPECIES, exponents, i).lanewise(VectorOperators.EXP))
+                    .max(smallest);
+            sigma.intoArray(sigmas, offset + i);
+            DoubleVector.fromArray(SPECIES, values, offset + i)
+                    .add(sigma.mul(g))
+                    .max(min)
+                    .min(max)
+                    .intoArray(values, offset + i);
+        }
+        for (; i < length; i++) {
+            int v = offset + i;
+            sigmas[v] = Math.max(epsilon, sigmas[v] * Math.exp(exponents[i]));
+            values[v] = Math.min(Util.MAX_VALUE, Math.max(Util.MIN_VALUE, values[v] + sigmas[v] * gauss[i]));
+        }
+    }
+}